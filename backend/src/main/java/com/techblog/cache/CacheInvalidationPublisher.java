@@ -0,0 +1,47 @@
+package com.techblog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts near-cache invalidations to the other nodes over Redis pub/sub.
+ * Messages have the form {@code nodeId|cacheName|key}; a {@code *} key clears
+ * the whole cache. Delivery is best effort, the L1 TTL bounds staleness when a
+ * message is missed.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "cache:invalidation";
+    static final String CLEAR_ALL = "*";
+    static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_ALL);
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            log.warn("Failed to publish cache invalidation for {}::{}", cacheName, key, e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.techblog.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Read-through loading with request coalescing and probabilistic early refresh.
+ *
+ * <p>On a miss only one thread per cache key runs the loader; concurrent callers
+ * for the same key wait for and share its result. On a hit, entries this node
+ * loaded are refreshed in the background with a probability that rises as the
+ * remote TTL approaches ("XFetch": refresh when
+ * {@code now - delta * beta * ln(rand) >= expiry}, where delta is the time the
+ * last load took), so hot keys are reloaded before they expire for everyone.
+ *
+ * <p>Waiters give up on a flight after {@code cache.single-flight.await-timeout}
+ * and load for themselves, so one stuck loader cannot pin every request for
+ * its key. Evictions made through {@link #evict} and {@link #clear} mark the
+ * flights they overlap, and a marked flight does not cache its result, so a
+ * load that read the old state cannot re-cache it after the eviction.
+ * Evictions arriving from other nodes are not seen here.
+ */
+@Component
+@Slf4j
+public class SingleFlightCacheLoader {
+
+    private final TaskExecutor taskExecutor;
+    private final Duration timeToLive;
+    private final double beta;
+    private final Duration awaitTimeout;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<String, LoadStats> loadStats;
+
+    public SingleFlightCacheLoader(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                   @Value("${spring.cache.redis.time-to-live:600000}") Duration timeToLive,
+                                   @Value("${cache.early-refresh.beta:1.0}") double beta,
+                                   @Value("${cache.single-flight.await-timeout:5s}") Duration awaitTimeout) {
+        this.taskExecutor = taskExecutor;
+        this.timeToLive = timeToLive;
+        this.beta = beta;
+        this.awaitTimeout = awaitTimeout;
+        this.loadStats = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(timeToLive).build();
+    }
+
+    private record LoadStats(long expiresAtMillis, long loadMillis) {
+    }
+
+    /** A load in progress; {@code evicted} is set when the key is evicted before it finishes. */
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean evicted;
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or loads it with {@code loader},
+     * caches it and returns it. {@code loader} may return {@code null}, in which
+     * case nothing is cached.
+     */
+    public <T> T get(Cache cache, Object key, Class<T> type, Supplier<T> loader) {
+        T cached = cache.get(key, type);
+        if (cached != null) {
+            maybeRefreshEarly(cache, key, loader);
+            return cached;
+        }
+        return load(cache, key, type, loader, false);
+    }
+
+    /** Evicts {@code key}, and keeps any load of it already in progress from caching its result. */
+    public void evict(Cache cache, Object key) {
+        Flight flight = inFlight.get(flightKey(cache, key));
+        if (flight != null) {
+            flight.evicted = true;
+        }
+        cache.evict(key);
+    }
+
+    /** Clears {@code cache}, and keeps any load into it already in progress from caching its result. */
+    public void clear(Cache cache) {
+        String prefix = flightKey(cache, "");
+        inFlight.forEach((flightKey, flight) -> {
+            if (flightKey.startsWith(prefix)) {
+                flight.evicted = true;
+            }
+        });
+        cache.clear();
+    }
+
+    private <T> T load(Cache cache, Object key, Class<T> type, Supplier<T> loader, boolean refresh) {
+        String flightKey = flightKey(cache, key);
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            return await(existing, type, loader);
+        }
+
+        try {
+            T value = refresh ? null : cache.get(key, type);
+            if (value == null) {
+                long start = System.currentTimeMillis();
+                value = loader.get();
+                long end = System.currentTimeMillis();
+                if (value != null && !flight.evicted) {
+                    cache.put(key, value);
+                    loadStats.put(flightKey, new LoadStats(end + timeToLive.toMillis(), end - start));
+                    if (flight.evicted) {
+                        // Evicted between the check and the put: the eviction may have run first.
+                        cache.evict(key);
+                    }
+                }
+            }
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private <T> void maybeRefreshEarly(Cache cache, Object key, Supplier<T> loader) {
+        String flightKey = flightKey(cache, key);
+        LoadStats stats = loadStats.getIfPresent(flightKey);
+        if (stats == null || inFlight.containsKey(flightKey)) {
+            return;
+        }
+        double jitter = -Math.max(1, stats.loadMillis()) * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() + jitter < stats.expiresAtMillis()) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                load(cache, key, Object.class, loader::get, true);
+            } catch (RuntimeException e) {
+                log.warn("Early refresh failed for {}", flightKey, e);
+            }
+        });
+    }
+
+    private <T> T await(Flight flight, Class<T> type, Supplier<T> loader) {
+        try {
+            return type.cast(flight.result.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            log.warn("Gave up waiting {} ms for a concurrent load, loading directly", awaitTimeout.toMillis());
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent load", e);
+        }
+    }
+
+    private static String flightKey(Cache cache, Object key) {
+        return cache.getName() + "::" + key;
+    }
+}
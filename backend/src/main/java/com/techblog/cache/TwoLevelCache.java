@@ -0,0 +1,154 @@
+package com.techblog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link org.springframework.cache.Cache} with a bounded in-heap near cache (L1)
+ * in front of a shared remote cache (L2, Redis). Reads are served from L1 when
+ * possible; every write or eviction goes to L2 and is broadcast so the other
+ * nodes drop their L1 copy.
+ *
+ * <p>L1 hands out the cached instance itself, so callers must treat cached
+ * values as immutable.
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private final org.springframework.cache.Cache remote;
+    private final Cache<String, ValueWrapper> local;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoLevelCache(org.springframework.cache.Cache remote, Cache<String, ValueWrapper> local,
+                         CacheInvalidationPublisher invalidationPublisher, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            localHits.increment();
+            return wrapper;
+        }
+        localMisses.increment();
+
+        wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(localKey, new SimpleValueWrapper(wrapper.get()));
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        invalidationPublisher.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            invalidationPublisher.publishEvict(getName(), localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.publishClear(getName());
+    }
+
+    /**
+     * Drops an entry from this node's L1 only, in response to a peer's write.
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.two-level.gets")
+                .tag("cache", remote.getName())
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
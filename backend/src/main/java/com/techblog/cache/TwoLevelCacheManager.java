@@ -0,0 +1,85 @@
+package com.techblog.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager so every cache gets an in-heap L1 bounded by
+ * {@code maximumSize} entries and {@code ttl}. Also listens for peer
+ * invalidations published by {@link CacheInvalidationPublisher}.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final long maximumSize;
+    private final Duration ttl;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, CacheInvalidationPublisher invalidationPublisher,
+                                MeterRegistry meterRegistry, long maximumSize, Duration ttl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.meterRegistry = meterRegistry;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(CacheInvalidationPublisher.SEPARATOR);
+        int second = body.indexOf(CacheInvalidationPublisher.SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (body.substring(0, first).equals(invalidationPublisher.getNodeId())) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+        String key = body.substring(second + 1);
+        if (CacheInvalidationPublisher.CLEAR_ALL.equals(key)) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("Remote cache not available: " + name);
+        }
+        return new TwoLevelCache(remote,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build(),
+                invalidationPublisher, meterRegistry);
+    }
+}
@@ -4,12 +4,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.firehose.FirehoseClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class AwsConfig {
@@ -20,6 +23,24 @@ public class AwsConfig {
     @Value("${aws.dynamodb.endpoint:}")
     private String dynamoDbEndpoint;
 
+    @Value("${aws.dynamodb.async.max-concurrency:200}")
+    private int dynamoDbMaxConcurrency;
+
+    @Value("${aws.dynamodb.async.max-pending-acquires:2000}")
+    private int dynamoDbMaxPendingAcquires;
+
+    @Value("${aws.dynamodb.async.acquire-timeout:2s}")
+    private Duration dynamoDbAcquireTimeout;
+
+    @Value("${aws.dynamodb.async.connect-timeout:1s}")
+    private Duration dynamoDbConnectTimeout;
+
+    @Value("${aws.dynamodb.async.read-timeout:5s}")
+    private Duration dynamoDbReadTimeout;
+
+    @Value("${aws.dynamodb.async.api-call-timeout:10s}")
+    private Duration dynamoDbApiCallTimeout;
+
     @Bean
     public S3Client s3Client() {
         return S3Client.builder()
@@ -41,6 +62,35 @@ public class AwsConfig {
         return builder.build();
     }
 
+    /**
+     * Non-blocking client for request-path comment reads and writes. Requests
+     * beyond {@code max-concurrency} open connections queue inside the client
+     * rather than on servlet threads, and fail fast once the queue is full or
+     * a connection cannot be acquired in time.
+     */
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        var builder = DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(dynamoDbMaxConcurrency)
+                        .maxPendingConnectionAcquires(dynamoDbMaxPendingAcquires)
+                        .connectionAcquisitionTimeout(dynamoDbAcquireTimeout)
+                        .connectionTimeout(dynamoDbConnectTimeout)
+                        .readTimeout(dynamoDbReadTimeout)
+                        .writeTimeout(dynamoDbReadTimeout)
+                        .connectionMaxIdleTime(Duration.ofSeconds(60))
+                        .tcpKeepAlive(true))
+                .overrideConfiguration(config -> config.apiCallTimeout(dynamoDbApiCallTimeout));
+
+        if (dynamoDbEndpoint != null && !dynamoDbEndpoint.isBlank()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+
+        return builder.build();
+    }
+
     @Bean
     public FirehoseClient firehoseClient() {
         return FirehoseClient.builder()
@@ -0,0 +1,72 @@
+package com.techblog.config;
+
+import com.techblog.cache.CacheInvalidationPublisher;
+import com.techblog.cache.TwoLevelCacheManager;
+import com.techblog.service.PostCacheCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+public class CacheConfig {
+
+    @Value("${spring.cache.redis.time-to-live}")
+    private Duration timeToLive;
+
+    @Value("${cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${cache.near.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+
+    @Value("${cache.near.time-to-live:30s}")
+    private Duration nearCacheTimeToLive;
+
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(timeToLive)
+                .serializeValuesWith(SerializationPair.fromSerializer(new PostCacheCodec(compressionThreshold)));
+        return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .build();
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationPublisher(stringRedisTemplate);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true", matchIfMissing = true)
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             MeterRegistry meterRegistry) {
+        return new TwoLevelCacheManager(redisCacheManager, cacheInvalidationPublisher, meterRegistry,
+                nearCacheMaximumSize, nearCacheTimeToLive);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasRole('ADMIN')")
@@ -28,11 +30,11 @@ public class AdminController {
     }
 
     @DeleteMapping("/comments/{commentId}")
-    public ResponseEntity<Void> deleteComment(
+    public CompletableFuture<ResponseEntity<Void>> deleteComment(
             @PathVariable String commentId,
             @AuthenticationPrincipal User currentUser
     ) {
-        commentService.deleteComment(commentId, currentUser);
-        return ResponseEntity.noContent().build();
+        return commentService.deleteComment(commentId, currentUser)
+                .thenApply(ignored -> ResponseEntity.noContent().build());
     }
 }
@@ -1,44 +1,125 @@
 package com.techblog.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techblog.dto.CommentRequest;
 import com.techblog.dto.CommentResponse;
+import com.techblog.dto.CursorPageResponse;
 import com.techblog.entity.User;
+import com.techblog.service.CommentCountService;
 import com.techblog.service.CommentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class CommentController {
 
+    private static final Duration COMMENTS_MAX_AGE = Duration.ofSeconds(30);
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentService commentService;
+    private final CommentCountService commentCountService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * The validator is the post's comment version, which moves on every create
+     * and delete, so a revalidation is answered before any comment is read;
+     * the version itself is read without blocking the servlet thread.
+     * Caching headers are only written with a loaded page; a failed load is a
+     * 5xx that nothing can cache. There is no {@code Last-Modified}: a delete
+     * changes the page without any newer timestamp to report.
+     */
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<CommentResponse>> getComments(@PathVariable Long postId) {
-        return ResponseEntity.ok(commentService.getCommentsByPostId(postId));
+    public CompletableFuture<ResponseEntity<CursorPageResponse<CommentResponse>>> getComments(
+            @PathVariable Long postId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "oldest") String order,
+            ServletWebRequest request
+    ) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean oldestFirst = isOldestFirst(order);
+        return commentCountService.getVersion(postId).thenCompose(version -> {
+            if (version == null) {
+                return commentService.getComments(postId, pageSize, cursor, oldestFirst).thenApply(ResponseEntity::ok);
+            }
+            String validator = postId + ":" + version + ":" + pageSize + ":" + oldestFirst + ":" + cursor;
+            if (HttpCaching.matches(request, validator)) {
+                return CompletableFuture.completedFuture(
+                        HttpCaching.cached(HttpStatus.NOT_MODIFIED, validator, false, COMMENTS_MAX_AGE).build());
+            }
+            return commentService.getComments(postId, pageSize, cursor, oldestFirst).thenApply(page ->
+                    HttpCaching.cached(HttpStatus.OK, validator, false, COMMENTS_MAX_AGE).body(page));
+        });
+    }
+
+    /**
+     * Streams every comment of the post as one JSON array, pulling DynamoDB
+     * pages lazily while the response is written.
+     */
+    @GetMapping("/posts/{postId}/comments/all")
+    public ResponseEntity<StreamingResponseBody> getAllComments(
+            @PathVariable Long postId,
+            @RequestParam(defaultValue = "oldest") String order
+    ) {
+        boolean oldestFirst = isOldestFirst(order);
+        StreamingResponseBody body = out -> {
+            try (Stream<CommentResponse> comments = commentService.streamComments(postId, oldestFirst);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                comments.forEach(comment -> {
+                    try {
+                        objectMapper.writeValue(generator, comment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping("/posts/{postId}/comments")
-    public ResponseEntity<CommentResponse> createComment(
+    public CompletableFuture<ResponseEntity<CommentResponse>> createComment(
             @PathVariable Long postId,
             @Valid @RequestBody CommentRequest request,
             @AuthenticationPrincipal User currentUser
     ) {
-        return ResponseEntity.ok(commentService.createComment(postId, request, currentUser));
+        return commentService.createComment(postId, request, currentUser).thenApply(ResponseEntity::ok);
     }
 
     @DeleteMapping("/comments/{commentId}")
-    public ResponseEntity<Void> deleteComment(
+    public CompletableFuture<ResponseEntity<Void>> deleteComment(
             @PathVariable String commentId,
             @AuthenticationPrincipal User currentUser
     ) {
-        commentService.deleteComment(commentId, currentUser);
-        return ResponseEntity.noContent().build();
+        return commentService.deleteComment(commentId, currentUser)
+                .thenApply(ignored -> ResponseEntity.noContent().build());
+    }
+
+    private static boolean isOldestFirst(String order) {
+        if (order.equalsIgnoreCase("oldest")) {
+            return true;
+        }
+        if (order.equalsIgnoreCase("newest")) {
+            return false;
+        }
+        throw new IllegalArgumentException("order must be 'oldest' or 'newest'");
     }
 }
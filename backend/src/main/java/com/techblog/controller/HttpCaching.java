@@ -0,0 +1,74 @@
+package com.techblog.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Conditional GET support for the read endpoints. Validators are weak ETags
+ * hashed from whatever the caller considers the representation's version
+ * (version counters, {@code updatedAt}, per-user state), read from a cheap
+ * source before the body is loaded so a 304 skips that work entirely.
+ *
+ * <p>Anonymous responses are marked {@code public} with a short max-age so a
+ * CDN or the browser can serve repeats; authenticated ones carry per-user
+ * state and are {@code private, no-cache}, which still lets the browser
+ * revalidate with the ETag.
+ */
+final class HttpCaching {
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Writes the caching headers and evaluates {@code If-None-Match} /
+     * {@code If-Modified-Since}. Returns {@code true} when the response has
+     * been turned into a 304 and the handler should return {@code null}.
+     */
+    static boolean notModified(ServletWebRequest request, String version, Instant lastModified,
+                               boolean personalized, Duration maxAge) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(personalized, maxAge).getHeaderValue());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        }
+        String etag = etag(version);
+        return lastModified == null
+                ? request.checkNotModified(etag)
+                : request.checkNotModified(etag, lastModified.toEpochMilli());
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} without touching the response, for
+     * handlers that only write caching headers once the body has loaded so a
+     * failed load never carries a validator.
+     */
+    static boolean matches(ServletWebRequest request, String version) {
+        return new ServletWebRequest(request.getRequest()).checkNotModified(etag(version));
+    }
+
+    /** A response carrying the validator for {@code version} and the matching caching headers. */
+    static ResponseEntity.BodyBuilder cached(HttpStatusCode status, String version, boolean personalized,
+                                             Duration maxAge) {
+        return ResponseEntity.status(status)
+                .eTag(etag(version))
+                .cacheControl(cacheControl(personalized, maxAge))
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+
+    private static String etag(String version) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static CacheControl cacheControl(boolean personalized, Duration maxAge) {
+        return personalized ? CacheControl.noCache().cachePrivate() : CacheControl.maxAge(maxAge).cachePublic();
+    }
+}
@@ -1,41 +1,185 @@
 package com.techblog.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techblog.dto.AutocompleteResponse;
+import com.techblog.dto.CursorPageResponse;
 import com.techblog.dto.PostRequest;
 import com.techblog.dto.PostResponse;
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.dto.SearchHitResponse;
 import com.techblog.entity.User;
+import com.techblog.search.AutocompleteService;
+import com.techblog.search.PostSearchService;
+import com.techblog.service.CommentCountService;
+import com.techblog.service.ListingVersion;
+import com.techblog.service.RelatedPostsIndex;
+import com.techblog.service.PostBodyCache;
 import com.techblog.service.PostService;
+import com.techblog.service.PostView;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/posts")
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_TAG_FILTERS = 10;
+    private static final Duration FEED_MAX_AGE = Duration.ofSeconds(30);
+    private static final Duration DETAIL_MAX_AGE = Duration.ofSeconds(60);
+
     private final PostService postService;
+    private final PostBodyCache postBodyCache;
+    private final CommentCountService commentCountService;
+    private final ListingVersion listingVersion;
+    private final PostSearchService postSearchService;
+    private final AutocompleteService autocompleteService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<Page<PostResponse>> getPosts(
+    public ResponseEntity<Page<?>> getPosts(
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(defaultValue = "all") String match,
+            @AuthenticationPrincipal User currentUser,
+            ServletWebRequest request
+    ) {
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                Sort.by("createdAt").descending());
+        if (tag != null && !tag.isEmpty()) {
+            if (tag.size() > MAX_TAG_FILTERS) {
+                throw new IllegalArgumentException("At most " + MAX_TAG_FILTERS + " tags can be combined");
+            }
+            if (!match.equalsIgnoreCase("all") && !match.equalsIgnoreCase("any")) {
+                throw new IllegalArgumentException("match must be 'all' or 'any'");
+            }
+        }
+        String query = String.join(":", String.valueOf(pageable.getPageNumber()),
+                String.valueOf(pageable.getPageSize()), String.valueOf(tag), match.toLowerCase(), String.valueOf(fields));
+        if (notModified(request, query, currentUser)) {
+            return null;
+        }
+        Page<PostSummaryResponse> posts = tag == null || tag.isEmpty()
+                ? postService.getPublishedPosts(pageable, currentUser)
+                : postService.getPublishedPostsByTags(tag, match.equalsIgnoreCase("all"), pageable, currentUser);
+        commentCountService.attachTo(posts.getContent());
+        SparseFieldset fieldset = SparseFieldset.parse(fields);
+        if (fieldset == null) {
+            return ResponseEntity.ok(posts);
+        }
+        return ResponseEntity.ok(posts.map(post -> fieldset.apply(objectMapper, post)));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageResponse<?>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal User currentUser,
+            ServletWebRequest request
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String query = String.join(":", "feed", String.valueOf(cursor), String.valueOf(pageSize),
+                String.valueOf(fields));
+        if (notModified(request, query, currentUser)) {
+            return null;
+        }
+        CursorPageResponse<PostSummaryResponse> feed = postService.getPublishedFeed(cursor, pageSize, currentUser);
+        commentCountService.attachTo(feed.getItems());
+        SparseFieldset fieldset = SparseFieldset.parse(fields);
+        if (fieldset == null) {
+            return ResponseEntity.ok(feed);
+        }
+        return ResponseEntity.ok(new CursorPageResponse<>(
+                feed.getItems().stream().map(post -> fieldset.apply(objectMapper, post)).toList(),
+                feed.getNextCursor(),
+                feed.isHasMore()));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostSummaryResponse>> getTrending(
             @RequestParam(defaultValue = "10") int size,
             @AuthenticationPrincipal User currentUser
     ) {
-        PageRequest pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return ResponseEntity.ok(postService.getPublishedPosts(pageable, currentUser));
+        List<PostSummaryResponse> trending = postService.getTrendingPosts(Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                currentUser);
+        commentCountService.attachTo(trending);
+        return ResponseEntity.ok(trending);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchHitResponse>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
+        return ResponseEntity.ok(postSearchService.search(q, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<AutocompleteResponse> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
+        int limit = Math.max(1, Math.min(size, AutocompleteService.MAX_SUGGESTIONS));
+        return ResponseEntity.ok(autocompleteService.complete(q, limit));
     }
 
     @GetMapping("/{slug}")
-    public ResponseEntity<PostResponse> getPostBySlug(
+    public ResponseEntity<byte[]> getPostBySlug(
+            @PathVariable String slug,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal User currentUser,
+            ServletWebRequest request
+    ) {
+        PostView view = postService.viewPost(slug, currentUser);
+        PostResponse detail = view.detail();
+        String version = detail.getId() + ":" + detail.getUpdatedAt() + ":" + view.likeCount()
+                + ":" + view.likedByCurrentUser();
+        if (HttpCaching.notModified(request, version, detail.getUpdatedAt(), currentUser != null, DETAIL_MAX_AGE)) {
+            return null;
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(postBodyCache.render(view, gzip));
+    }
+
+    @GetMapping("/{slug}/related")
+    public ResponseEntity<List<PostSummaryResponse>> getRelated(
             @PathVariable String slug,
+            @RequestParam(defaultValue = "5") int size,
             @AuthenticationPrincipal User currentUser
     ) {
-        return ResponseEntity.ok(postService.getPostBySlug(slug, currentUser));
+        int limit = Math.max(1, Math.min(size, RelatedPostsIndex.NEIGHBOURS));
+        List<PostSummaryResponse> related = postService.getRelatedPosts(slug, limit, currentUser);
+        commentCountService.attachTo(related);
+        return ResponseEntity.ok(related);
     }
 
     @PostMapping
@@ -71,4 +215,33 @@ public class PostController {
     ) {
         return ResponseEntity.ok(postService.toggleLike(postId, currentUser));
     }
+
+    /**
+     * Revalidates a listing before any of it is loaded, from the request's
+     * parameters and the {@link ListingVersion}. View and comment counts are
+     * left out on purpose, so a revalidated page may show slightly stale counts
+     * until something else about the listings changes. There is no
+     * {@code Last-Modified}, since removing a post changes a page without any
+     * newer timestamp. Without a version the listing is served uncached.
+     */
+    private boolean notModified(ServletWebRequest request, String query, User currentUser) {
+        String version = listingVersion.current(currentUser);
+        if (version == null) {
+            return false;
+        }
+        return HttpCaching.notModified(request, query + "|" + version, null, currentUser != null, FEED_MAX_AGE);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,43 @@
+package com.techblog.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Trims listing payloads to the properties named in a {@code fields=} request
+ * parameter. The {@code id} property is always kept; unknown names are ignored.
+ */
+final class SparseFieldset {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final Set<String> fields;
+
+    private SparseFieldset(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    static SparseFieldset parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        names.add("id");
+        return new SparseFieldset(names);
+    }
+
+    Map<String, Object> apply(ObjectMapper objectMapper, Object dto) {
+        Map<String, Object> properties = objectMapper.convertValue(dto, MAP_TYPE);
+        properties.keySet().retainAll(fields);
+        return properties;
+    }
+}
@@ -0,0 +1,14 @@
+package com.techblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AutocompleteResponse {
+    private List<SuggestionResponse> posts;
+    private List<SuggestionResponse> tags;
+    private List<SuggestionResponse> users;
+}
@@ -1,10 +1,11 @@
 package com.techblog.dto;
 
 import lombok.Data;
+import java.io.Serializable;
 import java.time.Instant;
 
 @Data
-public class PostResponse {
+public class PostResponse implements Serializable {
     private Long id;
     private String title;
     private String slug;
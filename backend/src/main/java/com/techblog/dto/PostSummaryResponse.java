@@ -0,0 +1,51 @@
+package com.techblog.dto;
+
+import com.techblog.entity.Post;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+public class PostSummaryResponse implements Serializable {
+    private Long id;
+    private String title;
+    private String slug;
+    private String excerpt;
+    private String coverImageUrl;
+    private String authorUsername;
+    private Long authorId;
+    private String status;
+    private Integer viewCount;
+    private Integer likeCount;
+    private String tags;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private boolean likedByCurrentUser;
+    /** Attached per request from {@code CommentCountService}; not part of the cached summary. */
+    private Long commentCount;
+
+    /**
+     * Constructor projection target for listing queries; never touches {@code posts.content}.
+     */
+    public PostSummaryResponse(Long id, String title, String slug, String excerpt, String coverImageUrl,
+                               String authorUsername, Long authorId, Post.Status status,
+                               Integer viewCount, Integer likeCount, String tags,
+                               Instant createdAt, Instant updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.slug = slug;
+        this.excerpt = excerpt;
+        this.coverImageUrl = coverImageUrl;
+        this.authorUsername = authorUsername;
+        this.authorId = authorId;
+        this.status = status.name();
+        this.viewCount = viewCount;
+        this.likeCount = likeCount;
+        this.tags = tags;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
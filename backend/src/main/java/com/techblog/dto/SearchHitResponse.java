@@ -0,0 +1,17 @@
+package com.techblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchHitResponse {
+    private Long id;
+    private String title;
+    private String slug;
+    private String excerpt;
+    private String tags;
+    private double score;
+    private String highlightedTitle;
+    private String snippet;
+}
@@ -0,0 +1,12 @@
+package com.techblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String text;
+    private String slug;
+    private double weight;
+}
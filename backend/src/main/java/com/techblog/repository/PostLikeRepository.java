@@ -2,12 +2,23 @@ package com.techblog.repository;
 
 import com.techblog.entity.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
     Optional<PostLike> findByPostIdAndUserId(Long postId, Long userId);
     boolean existsByPostIdAndUserId(Long postId, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PostLike l WHERE l.post.id = :postId AND l.user.id = :userId")
+    int deleteByPostIdAndUserId(Long postId, Long userId);
+
+    @Query("SELECT l.post.id FROM PostLike l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    Set<Long> findLikedPostIds(Long userId, Collection<Long> postIds);
 }
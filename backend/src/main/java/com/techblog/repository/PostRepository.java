@@ -1,30 +1,57 @@
 package com.techblog.repository;
 
+import com.techblog.dto.PostSummaryResponse;
 import com.techblog.entity.Post;
 import com.techblog.entity.Post.Status;
+import com.techblog.search.SearchDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+    @EntityGraph(attributePaths = "author")
     Optional<Post> findBySlug(String slug);
-    Page<Post> findByStatus(Status status, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE Post p SET p.viewCount = p.viewCount + 1 WHERE p.id = :id")
-    void incrementViewCount(Long id);
+    @Query("SELECT p.id FROM Post p WHERE p.slug = :slug")
+    Optional<Long> findIdBySlug(String slug);
 
-    @Modifying
-    @Query("UPDATE Post p SET p.likeCount = p.likeCount + 1 WHERE p.id = :id")
-    void incrementLikeCount(Long id);
+    @Query("SELECT p.slug FROM Post p WHERE p.slug = :base OR p.slug LIKE CONCAT(:base, '-%')")
+    List<String> findSlugsByPrefix(String base);
 
-    @Modifying
-    @Query("UPDATE Post p SET p.likeCount = p.likeCount - 1 WHERE p.id = :id AND p.likeCount > 0")
-    void decrementLikeCount(Long id);
+    String SUMMARY_SELECT = "SELECT new com.techblog.dto.PostSummaryResponse(p.id, p.title, p.slug, p.excerpt,"
+            + " p.coverImageUrl, a.username, a.id, p.status, p.viewCount, p.likeCount, p.tags, p.createdAt,"
+            + " p.updatedAt) FROM Post p JOIN p.author a";
+
+    @Query(value = SUMMARY_SELECT + " WHERE p.status = :status",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = :status")
+    Page<PostSummaryResponse> findSummariesByStatus(Status status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+    List<PostSummaryResponse> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + " WHERE p.status = :status ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryResponse> findFeed(Status status, Limit limit);
+
+    @Query(SUMMARY_SELECT + " WHERE p.status = :status AND p.createdAt <= :createdAt"
+            + " AND (p.createdAt < :createdAt OR p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryResponse> findFeedAfter(Status status, Instant createdAt, Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.techblog.search.SearchDocument(p.id, p.title, p.slug, p.excerpt, p.content, p.tags,"
+            + " p.updatedAt) FROM Post p WHERE p.status = :status")
+    Stream<SearchDocument> streamSearchDocuments(Status status);
 }
@@ -0,0 +1,25 @@
+package com.techblog.repository;
+
+import com.techblog.entity.Post.Status;
+import com.techblog.entity.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    List<Tag> findByNameIn(Collection<String> names);
+
+    /** Creates the tag unless it exists, including when a concurrent transaction has just inserted it. */
+    @Modifying
+    @Query(value = "INSERT INTO tags (name) VALUES (:name) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String name);
+
+    /** {@code [postId, tagName]} rows for every tagged post with the given status. */
+    @Query("SELECT p.id, t.name FROM Post p JOIN p.tagSet t WHERE p.status = :status")
+    List<Object[]> findPostTagNames(Status status);
+}
@@ -2,8 +2,10 @@ package com.techblog.repository;
 
 import com.techblog.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    /** {@code [id, username]} for every user. */
+    @Query("SELECT u.id, u.username FROM User u")
+    List<Object[]> findAllIdsAndUsernames();
 }
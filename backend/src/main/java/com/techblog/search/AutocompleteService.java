@@ -0,0 +1,254 @@
+package com.techblog.search;
+
+import com.techblog.dto.AutocompleteResponse;
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.dto.SuggestionResponse;
+import com.techblog.entity.Post;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import com.techblog.service.PostChangedEvent;
+import com.techblog.service.PostCountersFlushedEvent;
+import com.techblog.service.TagService;
+import com.techblog.service.UserRegisteredEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Type-ahead over post titles, tags and author usernames, answered from three
+ * {@link CompletionTrie}s without touching the database.
+ *
+ * <p>Suggestions are weighted by popularity: a post by {@code 1 + views +
+ * 5 * likes}, a tag and an author by the summed weight of their published
+ * posts. Titles are also reachable from the start of each later word, so
+ * "kafka" finds "Introduction to Kafka". The tries are built once the
+ * application is ready and updated from post, counter-flush and registration
+ * events. Posts, registrations and counter flushes on other instances are only
+ * picked up by the periodic rebuild, which fills fresh tries off to the side
+ * and replays the updates that arrived meanwhile before swapping them in, so
+ * events are never held up behind it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutocompleteService {
+
+    public static final int MAX_SUGGESTIONS = CompletionTrie.TOP_K;
+    private static final int MAX_TITLE_KEYS = 8;
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Suggestions suggestions = new Suggestions();
+    private List<Consumer<Suggestions>> changedDuringRebuild;
+
+    public AutocompleteResponse complete(String prefix, int limit) {
+        Suggestions current = suggestions;
+        return new AutocompleteResponse(
+                toResponses(current.posts.complete(prefix, limit)),
+                toResponses(current.tags.complete(prefix, limit)),
+                toResponses(current.users.complete(prefix, limit)));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${posts.autocomplete.rebuild-interval-ms:600000}",
+            fixedDelayString = "${posts.autocomplete.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Suggestions fresh = new Suggestions();
+            for (Object[] row : userRepository.findAllIdsAndUsernames()) {
+                fresh.putUser((Long) row[0], (String) row[1]);
+            }
+            Page<PostSummaryResponse> page;
+            int pageNumber = 0;
+            do {
+                page = postRepository.findSummariesByStatus(Post.Status.PUBLISHED,
+                        PageRequest.of(pageNumber++, BUILD_PAGE_SIZE, Sort.by("id")));
+                page.forEach(fresh::upsert);
+            } while (page.hasNext());
+            synchronized (this) {
+                changedDuringRebuild.forEach(change -> change.accept(fresh));
+                suggestions = fresh;
+            }
+            log.info("Autocomplete rebuilt with {} posts, {} tags and {} users in {} ms", fresh.postStats.size(),
+                    fresh.tagWeights.size(), fresh.usernames.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Autocomplete rebuild failed, keeping the current suggestions", e);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        Post post = event.post();
+        if (event.deleted() || post.getStatus() != Post.Status.PUBLISHED) {
+            apply(target -> target.removePost(post.getId()));
+            return;
+        }
+        double weight = weight(post.getViewCount(), post.getLikeCount());
+        apply(target -> target.upsertPost(post.getId(), post.getTitle(), post.getSlug(), post.getTags(),
+                post.getAuthor().getId(), weight));
+    }
+
+    /** Re-weights posts whose counters just reached the database. */
+    @EventListener
+    public void onCountersFlushed(PostCountersFlushedEvent event) {
+        Set<Long> postIds = new HashSet<>(event.viewedPostIds());
+        postIds.addAll(event.likedPostIds());
+        List<PostSummaryResponse> summaries = postRepository.findSummariesByIdIn(postIds);
+        apply(target -> summaries.stream()
+                .filter(summary -> target.postStats.containsKey(summary.getId()))
+                .forEach(target::upsert));
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        apply(target -> target.putUser(event.userId(), event.username()));
+    }
+
+    /** Applies an update to the live suggestions and, during a rebuild, records it for the fresh ones. */
+    private synchronized void apply(Consumer<Suggestions> change) {
+        change.accept(suggestions);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(change);
+        }
+    }
+
+    /**
+     * The three tries and the weight bookkeeping behind them. Writes are
+     * serialised by the service's monitor; the tries are read without locks.
+     */
+    private static final class Suggestions {
+
+        private record PostStats(Long authorId, double weight, Set<String> tags) {
+        }
+
+        final CompletionTrie posts = new CompletionTrie();
+        final CompletionTrie tags = new CompletionTrie();
+        final CompletionTrie users = new CompletionTrie();
+
+        final Map<Long, PostStats> postStats = new HashMap<>();
+        final Map<String, Double> tagWeights = new HashMap<>();
+        final Map<String, Integer> tagPostCounts = new HashMap<>();
+        final Map<Long, String> usernames = new HashMap<>();
+        final Map<Long, Double> authorWeights = new HashMap<>();
+
+        void putUser(Long userId, String username) {
+            usernames.put(userId, username);
+            refreshUser(userId);
+        }
+
+        void upsert(PostSummaryResponse summary) {
+            if (!Post.Status.PUBLISHED.name().equals(summary.getStatus())) {
+                removePost(summary.getId());
+                return;
+            }
+            upsertPost(summary.getId(), summary.getTitle(), summary.getSlug(), summary.getTags(),
+                    summary.getAuthorId(), weight(summary.getViewCount(), summary.getLikeCount()));
+        }
+
+        void upsertPost(Long postId, String title, String slug, String postTags, Long authorId, double weight) {
+            removePost(postId);
+            Set<String> tagNames = TagService.normalize(postTags);
+            postStats.put(postId, new PostStats(authorId, weight, tagNames));
+            posts.put(new CompletionTrie.Completion("p" + postId, title, slug, weight), titleKeys(title));
+            tagNames.forEach(tag -> adjustTag(tag, weight, 1));
+            authorWeights.merge(authorId, weight, Double::sum);
+            refreshUser(authorId);
+        }
+
+        void removePost(Long postId) {
+            PostStats previous = postStats.remove(postId);
+            if (previous == null) {
+                return;
+            }
+            posts.remove("p" + postId);
+            previous.tags().forEach(tag -> adjustTag(tag, -previous.weight(), -1));
+            authorWeights.merge(previous.authorId(), -previous.weight(), Double::sum);
+            refreshUser(previous.authorId());
+        }
+
+        private void adjustTag(String tag, double weightDelta, int countDelta) {
+            int count = tagPostCounts.merge(tag, countDelta, Integer::sum);
+            if (count <= 0) {
+                tagPostCounts.remove(tag);
+                tagWeights.remove(tag);
+                tags.remove("t" + tag);
+                return;
+            }
+            double weight = tagWeights.merge(tag, weightDelta, Double::sum);
+            tags.put(new CompletionTrie.Completion("t" + tag, tag, null, weight), List.of(tag));
+        }
+
+        private void refreshUser(Long userId) {
+            String username = usernames.get(userId);
+            if (username == null) {
+                return;
+            }
+            double weight = 1 + authorWeights.getOrDefault(userId, 0.0);
+            users.put(new CompletionTrie.Completion("u" + userId, username, null, weight), List.of(username));
+        }
+    }
+
+    /** The whole title plus the title from each of its next few word starts. */
+    private static List<String> titleKeys(String title) {
+        List<String> keys = new ArrayList<>();
+        String normalized = CompletionTrie.normalize(title);
+        keys.add(normalized);
+        int from = 0;
+        while (keys.size() < MAX_TITLE_KEYS) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0) {
+                break;
+            }
+            keys.add(normalized.substring(space + 1));
+            from = space + 1;
+        }
+        return keys;
+    }
+
+    private static double weight(Integer viewCount, Integer likeCount) {
+        return 1 + (viewCount == null ? 0 : viewCount) + 5.0 * (likeCount == null ? 0 : likeCount);
+    }
+
+    private static List<SuggestionResponse> toResponses(List<CompletionTrie.Completion> completions) {
+        return completions.stream()
+                .map(completion -> new SuggestionResponse(completion.text(), completion.slug(), completion.weight()))
+                .toList();
+    }
+}
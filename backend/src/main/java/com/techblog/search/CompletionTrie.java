@@ -0,0 +1,156 @@
+package com.techblog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Character trie in which every node caches the {@link #TOP_K} heaviest
+ * completions of its subtree. A lookup walks the prefix and returns that
+ * cached list, so it costs one map hop per typed character regardless of how
+ * many entries share the prefix.
+ *
+ * <p>Reads take no locks: children maps are concurrent and each node's list
+ * is an immutable snapshot replaced on write. Writers must be serialised by
+ * the caller; a write recomputes the cached lists along the affected paths
+ * only.
+ */
+final class CompletionTrie {
+
+    static final int TOP_K = 10;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Comparator<Completion> HEAVIEST_FIRST = Comparator.comparingDouble(Completion::weight)
+            .reversed()
+            .thenComparing(Completion::text);
+
+    record Completion(String id, String text, String slug, double weight) {
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>();
+        final Map<String, Completion> terminals = new HashMap<>();
+        volatile List<Completion> top = List.of();
+    }
+
+    private record Indexed(Completion completion, List<String> keys) {
+    }
+
+    private final Node root = new Node();
+    private final Map<String, Indexed> entries = new HashMap<>();
+
+    /** Adds or replaces the completion with {@code id}, reachable through each of {@code keys}. */
+    void put(Completion completion, Collection<String> keys) {
+        remove(completion.id());
+        List<String> normalizedKeys = keys.stream().map(CompletionTrie::normalize).filter(key -> !key.isEmpty())
+                .distinct().toList();
+        for (String key : normalizedKeys) {
+            List<Node> path = path(key, true);
+            path.get(path.size() - 1).terminals.put(completion.id(), completion);
+            refresh(path);
+        }
+        entries.put(completion.id(), new Indexed(completion, normalizedKeys));
+    }
+
+    void remove(String id) {
+        Indexed previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : previous.keys()) {
+            List<Node> path = path(key, false);
+            if (path != null) {
+                path.get(path.size() - 1).terminals.remove(id);
+                prune(path, key);
+                refresh(path);
+            }
+        }
+    }
+
+    Completion get(String id) {
+        Indexed indexed = entries.get(id);
+        return indexed == null ? null : indexed.completion();
+    }
+
+    List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Completion> top = node.top;
+        return top.size() <= limit ? top : top.subList(0, limit);
+    }
+
+    /** Lower-cased, accent-free, single-spaced form used for keys and prefixes alike. */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Nodes from the root to the node for {@code key}; {@code null} if absent and not creating. */
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /** Detaches nodes left with no terminals and no children, deepest first. */
+    private static void prune(List<Node> path, String key) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node node = path.get(depth);
+            if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                return;
+            }
+            path.get(depth - 1).children.remove(key.charAt(depth - 1));
+        }
+    }
+
+    /** Recomputes cached lists bottom-up; a node's list is built from its own terminals and its children's lists. */
+    private static void refresh(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            Map<String, Completion> candidates = new LinkedHashMap<>(node.terminals);
+            for (Node child : node.children.values()) {
+                for (Completion completion : child.top) {
+                    candidates.putIfAbsent(completion.id(), completion);
+                }
+            }
+            List<Completion> top = new ArrayList<>(candidates.values());
+            top.sort(HEAVIEST_FIRST);
+            node.top = List.copyOf(top.size() > TOP_K ? top.subList(0, TOP_K) : top);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.techblog.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.Set;
+
+/**
+ * Marks matched terms in result text. Output is HTML-escaped with matches
+ * wrapped in {@code <mark>} so clients can render it as-is.
+ */
+final class Highlighter {
+
+    private static final String OPEN = "<mark>";
+    private static final String CLOSE = "</mark>";
+    private static final int CONTEXT_BEFORE = 60;
+
+    private Highlighter() {
+    }
+
+    /** The whole of {@code text} with matches marked; for short fields such as the title. */
+    static String highlight(String text, Set<String> terms) {
+        return text == null ? null : mark(text, 0, text.length(), terms);
+    }
+
+    /**
+     * A fragment of at most roughly {@code length} characters around the first
+     * match in {@code text}, or its beginning when nothing matches.
+     */
+    static String snippet(String text, Set<String> terms, int length) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        int firstMatch = firstMatch(text, terms);
+        int start = firstMatch < 0 ? 0 : Math.min(firstMatch, wordStart(text, Math.max(0, firstMatch - CONTEXT_BEFORE)));
+        int end = Math.min(text.length(), start + length);
+        if (end < text.length()) {
+            int space = text.lastIndexOf(' ', end);
+            if (space > start) {
+                end = space;
+            }
+        }
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("… ");
+        }
+        snippet.append(mark(text, start, end, terms));
+        if (end < text.length()) {
+            snippet.append(" …");
+        }
+        return snippet.toString();
+    }
+
+    private static String mark(String text, int from, int to, Set<String> terms) {
+        String region = text.substring(from, to);
+        StringBuilder out = new StringBuilder(region.length() + 32);
+        int[] copied = {0};
+        Tokenizer.forEachToken(region, (start, end) -> {
+            if (terms.contains(Tokenizer.normalize(region, start, end))) {
+                out.append(HtmlUtils.htmlEscape(region.substring(copied[0], start)))
+                        .append(OPEN)
+                        .append(HtmlUtils.htmlEscape(region.substring(start, end)))
+                        .append(CLOSE);
+                copied[0] = end;
+            }
+        });
+        out.append(HtmlUtils.htmlEscape(region.substring(copied[0])));
+        return out.toString();
+    }
+
+    private static int firstMatch(String text, Set<String> terms) {
+        int[] first = {-1};
+        Tokenizer.forEachToken(text, (start, end) -> {
+            if (first[0] < 0 && terms.contains(Tokenizer.normalize(text, start, end))) {
+                first[0] = start;
+            }
+        });
+        return first[0];
+    }
+
+    private static int wordStart(String text, int index) {
+        if (index == 0) {
+            return 0;
+        }
+        int space = text.indexOf(' ', index);
+        return space < 0 ? index : space + 1;
+    }
+}
@@ -0,0 +1,254 @@
+package com.techblog.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over published posts, ranked with BM25F: per-field
+ * term frequencies are length-normalised against that field's average, boosted
+ * and summed before BM25 saturation, so a term in a short title outweighs the
+ * same term buried in a long body.
+ *
+ * <p>The term dictionary is sorted, which makes a prefix query a range scan
+ * over the dictionary rather than a scan over documents. Query cost is
+ * proportional to the postings of the matched terms, not to the corpus.
+ */
+final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    enum Field {
+        TITLE(3.0), TAGS(2.5), EXCERPT(1.5), CONTENT(1.0);
+
+        final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+
+        String text(SearchDocument document) {
+            return switch (this) {
+                case TITLE -> document.title();
+                case TAGS -> document.tags();
+                case EXCERPT -> document.excerpt();
+                case CONTENT -> document.content();
+            };
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    /** term -> post id -> per-field term frequency */
+    private final NavigableMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Entry> documents = new HashMap<>();
+    private final long[] totalLengths = new long[FIELDS.length];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    record Hit(SearchDocument document, double score, Set<String> matchedTerms) {
+    }
+
+    private record Entry(SearchDocument document, int[] lengths, Set<String> terms) {
+    }
+
+    private record QueryTerm(String term, boolean prefix) {
+    }
+
+    /** Adds {@code document}, replacing any previous version with the same id. */
+    void put(SearchDocument document) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        int[] lengths = new int[FIELDS.length];
+        for (Field field : FIELDS) {
+            List<String> terms = Tokenizer.terms(field.text(document));
+            lengths[field.ordinal()] = terms.size();
+            for (String term : terms) {
+                frequencies.computeIfAbsent(term, t -> new int[FIELDS.length])[field.ordinal()]++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.id());
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), tf));
+            for (int i = 0; i < lengths.length; i++) {
+                totalLengths[i] += lengths[i];
+            }
+            documents.put(document.id(), new Entry(document, lengths, frequencies.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents against {@code query}. Terms are OR-ed; a term ending in
+     * {@code *}, and the last term of a query typed without trailing space,
+     * also match every indexed term they prefix, at a reduced weight.
+     */
+    List<Hit> search(String query, int limit) {
+        List<QueryTerm> queryTerms = parse(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double[] averageLengths = new double[FIELDS.length];
+            for (int i = 0; i < FIELDS.length; i++) {
+                averageLengths[i] = Math.max(1.0, (double) totalLengths[i] / documentCount);
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            Map<Long, Set<String>> matched = new HashMap<>();
+            for (QueryTerm queryTerm : queryTerms) {
+                // A document scores once per query term, with its best-matching expansion.
+                Map<Long, Double> best = new HashMap<>();
+                Map<Long, String> bestTerm = new HashMap<>();
+                expand(queryTerm).forEach((term, weight) -> {
+                    Map<Long, int[]> termPostings = postings.get(term);
+                    double df = termPostings.size();
+                    double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                    termPostings.forEach((id, frequencies) -> {
+                        int[] lengths = documents.get(id).lengths();
+                        double tf = 0;
+                        for (int i = 0; i < FIELDS.length; i++) {
+                            if (frequencies[i] > 0) {
+                                tf += FIELDS[i].boost * frequencies[i] / (1 - B + B * lengths[i] / averageLengths[i]);
+                            }
+                        }
+                        double score = weight * idf * tf * (K1 + 1) / (K1 + tf);
+                        if (score > best.getOrDefault(id, 0.0)) {
+                            best.put(id, score);
+                            bestTerm.put(id, term);
+                        }
+                    });
+                });
+                best.forEach((id, score) -> {
+                    scores.merge(id, score, Double::sum);
+                    matched.computeIfAbsent(id, k -> new HashSet<>()).add(bestTerm.get(id));
+                });
+            }
+
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey());
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, ranking);
+            for (Map.Entry<Long, Double> scored : scores.entrySet()) {
+                top.offer(scored);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Long, Double> scored = top.poll();
+                hits.add(new Hit(documents.get(scored.getKey()).document(), scored.getValue(),
+                        matched.get(scored.getKey())));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Entry previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Long, int[]> termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        for (int i = 0; i < FIELDS.length; i++) {
+            totalLengths[i] -= previous.lengths()[i];
+        }
+    }
+
+    /** Indexed terms matched by {@code queryTerm}, with their weights. Caller holds the read lock. */
+    private Map<String, Double> expand(QueryTerm queryTerm) {
+        Map<String, Double> expansions = new HashMap<>();
+        String term = queryTerm.term();
+        if (postings.containsKey(term)) {
+            expansions.put(term, 1.0);
+        }
+        if (!queryTerm.prefix() || term.length() < MIN_PREFIX_LENGTH) {
+            return expansions;
+        }
+        NavigableMap<String, Map<Long, int[]>> range = postings.subMap(term, false, term + Character.MAX_VALUE, false);
+        List<Map.Entry<String, Map<Long, int[]>>> candidates = new ArrayList<>(range.entrySet());
+        if (candidates.size() > MAX_PREFIX_EXPANSIONS) {
+            candidates.sort(Comparator.comparingInt((Map.Entry<String, Map<Long, int[]>> e) -> e.getValue().size())
+                    .reversed());
+            candidates = candidates.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+        for (Map.Entry<String, Map<Long, int[]>> candidate : candidates) {
+            expansions.put(candidate.getKey(), PREFIX_WEIGHT);
+        }
+        return expansions;
+    }
+
+    private static List<QueryTerm> parse(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        String[] pieces = query.trim().split("\\s+");
+        boolean typingLastTerm = !query.isEmpty() && !Character.isWhitespace(query.charAt(query.length() - 1));
+        for (int p = 0; p < pieces.length; p++) {
+            String piece = pieces[p];
+            boolean prefix = piece.endsWith("*") || (typingLastTerm && p == pieces.length - 1);
+            List<String> tokens = new ArrayList<>();
+            Tokenizer.forEachToken(piece, (start, end) -> {
+                String token = Tokenizer.normalize(piece, start, end);
+                if (token != null) {
+                    tokens.add(token);
+                }
+            });
+            for (int t = 0; t < tokens.size(); t++) {
+                boolean last = t == tokens.size() - 1;
+                String token = tokens.get(t);
+                if (!(prefix && last) && Tokenizer.isStopWord(token)) {
+                    continue;
+                }
+                terms.add(new QueryTerm(token, prefix && last));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,120 @@
+package com.techblog.search;
+
+import com.techblog.dto.SearchHitResponse;
+import com.techblog.entity.Post;
+import com.techblog.repository.PostRepository;
+import com.techblog.service.PostChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over published posts, served from an {@link InvertedIndex}
+ * held in memory so queries never reach Postgres.
+ *
+ * <p>The index is built from a streamed projection once the application is
+ * ready and kept current from {@link PostChangedEvent}s after each commit.
+ * Changes made through other instances are only picked up by the periodic
+ * rebuild. A rebuild fills a fresh index off to the side and replays any
+ * events that arrived meanwhile before swapping it in, so no update is lost.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostSearchService {
+
+    public static final int MAX_RESULTS = 50;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile InvertedIndex index = new InvertedIndex();
+    private List<PostChangedEvent> changedDuringRebuild;
+
+    public List<SearchHitResponse> search(String query, int limit) {
+        List<InvertedIndex.Hit> hits = index.search(query, Math.min(limit, MAX_RESULTS));
+        List<SearchHitResponse> results = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit hit : hits) {
+            SearchDocument document = hit.document();
+            String body = document.content() != null ? document.content() : document.excerpt();
+            results.add(new SearchHitResponse(
+                    document.id(),
+                    document.title(),
+                    document.slug(),
+                    document.excerpt(),
+                    document.tags(),
+                    hit.score(),
+                    Highlighter.highlight(document.title(), hit.matchedTerms()),
+                    Highlighter.snippet(body, hit.matchedTerms(), SNIPPET_LENGTH)));
+        }
+        return results;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${posts.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${posts.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            InvertedIndex fresh = new InvertedIndex();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<SearchDocument> documents = postRepository.streamSearchDocuments(Post.Status.PUBLISHED)) {
+                    documents.forEach(fresh::put);
+                }
+            });
+            synchronized (this) {
+                changedDuringRebuild.forEach(event -> apply(fresh, event));
+                index = fresh;
+            }
+            log.info("Search index rebuilt with {} posts in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed, keeping the current index", e);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        apply(index, event);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(event);
+        }
+    }
+
+    private static void apply(InvertedIndex target, PostChangedEvent event) {
+        Post post = event.post();
+        if (event.deleted() || post.getStatus() != Post.Status.PUBLISHED) {
+            target.remove(post.getId());
+        } else {
+            target.put(SearchDocument.of(post));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.techblog.search;
+
+import com.techblog.entity.Post;
+
+import java.time.Instant;
+
+/**
+ * The fields of a published post that the search index needs. Loaded as a
+ * JPQL constructor projection so a full rebuild does not fill the persistence
+ * context with managed entities.
+ */
+public record SearchDocument(Long id, String title, String slug, String excerpt, String content,
+                             String tags, Instant updatedAt) {
+
+    static SearchDocument of(Post post) {
+        return new SearchDocument(post.getId(), post.getTitle(), post.getSlug(), post.getExcerpt(),
+                post.getContent(), post.getTags(), post.getUpdatedAt());
+    }
+}
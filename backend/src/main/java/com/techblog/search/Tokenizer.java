@@ -0,0 +1,88 @@
+package com.techblog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text on anything that is not a letter or digit and folds each token
+ * to lower-case ASCII where possible. Shared by indexing, querying and
+ * highlighting so the three always agree on what a term is.
+ */
+final class Tokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with");
+
+    private Tokenizer() {
+    }
+
+    /** Indexable terms of {@code text}, stop words removed. */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        forEachToken(text, (start, end) -> {
+            String term = normalize(text, start, end);
+            if (term != null && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        });
+        return terms;
+    }
+
+    static boolean isStopWord(String term) {
+        return STOP_WORDS.contains(term);
+    }
+
+    /** Calls {@code consumer} with the raw {@code [start, end)} bounds of every token. */
+    static void forEachToken(String text, TokenConsumer consumer) {
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                consumer.accept(start, i);
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            consumer.accept(start, text.length());
+        }
+    }
+
+    /** The folded form of {@code text[start, end)}, or {@code null} if it is too long to be useful. */
+    static String normalize(String text, int start, int end) {
+        if (end - start > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) > 0x7f) {
+                ascii = false;
+                break;
+            }
+        }
+        String token = text.substring(start, end);
+        if (!ascii) {
+            token = DIACRITICS.matcher(Normalizer.normalize(token, Normalizer.Form.NFD)).replaceAll("");
+        }
+        return token.toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    interface TokenConsumer {
+        void accept(int start, int end);
+    }
+}
@@ -7,6 +7,7 @@ import com.techblog.entity.User;
 import com.techblog.repository.UserRepository;
 import com.techblog.security.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,6 +21,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -37,6 +39,7 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUsername()));
         String token = jwtService.generateToken(user);
         return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRole().name());
     }
@@ -0,0 +1,236 @@
+package com.techblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techblog.dto.CommentResponse;
+import com.techblog.dto.CursorPageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Write-through cache of the head of each comment thread: the first
+ * {@link #HEAD_SIZE} comments, oldest first, which is the page every article
+ * view asks for. Creates and deletes edit the cached head in place rather than
+ * evicting it, so a hot thread is served without DynamoDB reads between
+ * expiries.
+ *
+ * <p>The head is a Redis list whose first element records whether more
+ * comments follow it, then one {@code commentId|json} element per comment.
+ * Every edit is a Lua script, so edits from different nodes apply atomically
+ * to the shared list. A new comment is the newest, so it is appended while the
+ * head is not yet full and otherwise only marks that more comments follow; a
+ * deleted comment is dropped, leaving the head one shorter, and the cursor
+ * taken from its last comment still resumes the thread exactly after it.
+ *
+ * <p>Each edit also bumps a per-post generation, even when no head is cached.
+ * A load records the generation it started from and its result is stored only
+ * if no edit ran in between, so a load racing a create cannot cache a head
+ * without the new comment.
+ *
+ * <p>Edits run on the application executor, never on the DynamoDB client's
+ * completion threads. Redis failures degrade to cache misses.
+ */
+@Component
+@Slf4j
+public class CommentCache {
+
+    static final int HEAD_SIZE = 20;
+    private static final String MORE = "more";
+    private static final String LAST = "last";
+    private static final char ID_SEPARATOR = '|';
+    private static final Duration GENERATION_TTL = Duration.ofDays(1);
+
+    /** KEYS: head, generation. Returns {generation, head elements...}. */
+    private static final RedisScript<List> LOOKUP = RedisScript.of("""
+            local result = redis.call('LRANGE', KEYS[1], 0, -1)
+            table.insert(result, 1, redis.call('GET', KEYS[2]) or '0')
+            return result
+            """, List.class);
+
+    /** KEYS: head, generation. ARGV: expected generation, ttl seconds, head elements... */
+    private static final RedisScript<Long> STORE = RedisScript.of("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+              return 0
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('RPUSH', KEYS[1], unpack(ARGV, 3))
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /** KEYS: head, generation. ARGV: element, head size, generation ttl seconds. */
+    private static final RedisScript<Long> APPEND = RedisScript.of("""
+            redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[3])
+            local marker = redis.call('LINDEX', KEYS[1], 0)
+            if not marker or marker == 'more' then
+              return 0
+            end
+            if redis.call('LLEN', KEYS[1]) - 1 >= tonumber(ARGV[2]) then
+              redis.call('LSET', KEYS[1], 0, 'more')
+            else
+              redis.call('RPUSH', KEYS[1], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    /** KEYS: head, generation. ARGV: element prefix ({@code commentId|}), generation ttl seconds. */
+    private static final RedisScript<Long> REMOVE = RedisScript.of("""
+            redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[2])
+            local elements = redis.call('LRANGE', KEYS[1], 1, -1)
+            for _, element in ipairs(elements) do
+              if string.sub(element, 1, #ARGV[1]) == ARGV[1] then
+                if #elements == 1 and redis.call('LINDEX', KEYS[1], 0) == 'more' then
+                  redis.call('DEL', KEYS[1])
+                else
+                  redis.call('LREM', KEYS[1], 1, element)
+                end
+                return 1
+              end
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final Duration timeToLive;
+    private final boolean enabled;
+
+    public CommentCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                        @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                        @Value("${cache.comments.time-to-live:5m}") Duration timeToLive,
+                        @Value("${cache.comments.enabled:true}") boolean enabled) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.timeToLive = timeToLive;
+        this.enabled = enabled;
+    }
+
+    /** The first comments of a thread and whether any follow them. */
+    record Head(List<CommentResponse> comments, boolean hasMore) {
+
+        static Head of(CursorPageResponse<CommentResponse> page) {
+            return new Head(List.copyOf(page.getItems()), page.isHasMore());
+        }
+
+        /** The first {@code limit} comments as a page, with a cursor after the last one returned. */
+        CursorPageResponse<CommentResponse> page(int limit) {
+            List<CommentResponse> items = comments.size() <= limit ? comments : comments.subList(0, limit);
+            boolean more = items.size() < comments.size() || hasMore;
+            String nextCursor = null;
+            if (more) {
+                CommentResponse last = items.get(items.size() - 1);
+                nextCursor = new CommentCursor(true, last.getPostId().toString(), last.getCreatedAt().toString(),
+                        last.getId()).encode();
+            }
+            return new CursorPageResponse<>(items, nextCursor, more);
+        }
+    }
+
+    /** A cached head, or {@code null} on a miss, with the generation a load on a miss must store against. */
+    record Lookup(Head head, String generation) {
+    }
+
+    static boolean isHeadRequest(int limit, String cursor, boolean oldestFirst) {
+        return oldestFirst && (cursor == null || cursor.isBlank()) && limit <= HEAD_SIZE;
+    }
+
+    /** Looks the head up; {@code null} when the cache is disabled or unavailable, so nothing is stored. */
+    Lookup lookup(Long postId) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            List<?> result = redisTemplate.execute(LOOKUP, keys(postId));
+            if (result == null || result.isEmpty()) {
+                return null;
+            }
+            String generation = (String) result.get(0);
+            if (result.size() == 1) {
+                return new Lookup(null, generation);
+            }
+            List<CommentResponse> comments = new ArrayList<>(result.size() - 2);
+            for (Object element : result.subList(2, result.size())) {
+                String value = (String) element;
+                comments.add(objectMapper.readValue(value.substring(value.indexOf(ID_SEPARATOR) + 1),
+                        CommentResponse.class));
+            }
+            return new Lookup(new Head(comments, MORE.equals(result.get(1))), generation);
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Failed to read cached comments of post {}", postId, e);
+            return null;
+        }
+    }
+
+    /** Stores a freshly loaded head unless the thread was edited since {@code generation} was read. */
+    CompletableFuture<Void> store(Long postId, String generation, Head head) {
+        return run(postId, () -> {
+            List<String> args = new ArrayList<>(head.comments().size() + 3);
+            args.add(generation);
+            args.add(Long.toString(timeToLive.toSeconds()));
+            args.add(head.hasMore() ? MORE : LAST);
+            for (CommentResponse comment : head.comments()) {
+                args.add(element(comment));
+            }
+            redisTemplate.execute(STORE, keys(postId), args.toArray());
+        }, false);
+    }
+
+    CompletableFuture<Void> added(CommentResponse comment) {
+        return run(comment.getPostId(), () -> redisTemplate.execute(APPEND, keys(comment.getPostId()),
+                element(comment), Integer.toString(HEAD_SIZE), Long.toString(GENERATION_TTL.toSeconds())), true);
+    }
+
+    CompletableFuture<Void> removed(Long postId, String commentId) {
+        return run(postId, () -> redisTemplate.execute(REMOVE, keys(postId),
+                commentId + ID_SEPARATOR, Long.toString(GENERATION_TTL.toSeconds())), true);
+    }
+
+    /**
+     * Runs a Redis write on the application executor. A failed edit evicts the
+     * head, since it may now be missing a change; failures are logged, never
+     * propagated.
+     */
+    private CompletableFuture<Void> run(Long postId, Runnable write, boolean evictOnFailure) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(write, taskExecutor).exceptionally(error -> {
+            log.warn("Failed to update cached comments of post {}", postId, error);
+            if (evictOnFailure) {
+                try {
+                    redisTemplate.delete(keys(postId).get(0));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to evict cached comments of post {}", postId, e);
+                }
+            }
+            return null;
+        });
+    }
+
+    private String element(CommentResponse comment) {
+        try {
+            return comment.getId() + ID_SEPARATOR + objectMapper.writeValueAsString(comment);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize comment " + comment.getId(), e);
+        }
+    }
+
+    /** Both keys share a hash tag so the scripts also run on a clustered Redis. */
+    private static List<String> keys(Long postId) {
+        return List.of("comments:{" + postId + "}:head", "comments:{" + postId + "}:generation");
+    }
+}
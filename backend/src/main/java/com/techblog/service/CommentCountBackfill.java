@@ -0,0 +1,76 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.entity.Post;
+import com.techblog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Map;
+
+/**
+ * One-off initialisation of the comment counters for comments written before
+ * counters existed: counts each published post's live comments and overwrites
+ * its counter, bumping its version so cached comment pages revalidate. Enable
+ * with {@code aws.dynamodb.comment-counts.backfill=true} on a single node,
+ * ideally at a quiet time, since a comment written between a post's count and
+ * its overwrite is not reflected until the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "aws.dynamodb.comment-counts.backfill", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CommentCountBackfill {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final PostRepository postRepository;
+    private final CommentService commentService;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbCapacityMeter capacityMeter;
+
+    @Value("${aws.dynamodb.comment-counts-table}")
+    private String countsTable;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.nanoTime();
+        int posts = 0;
+        Page<PostSummaryResponse> page;
+        int pageNumber = 0;
+        do {
+            page = postRepository.findSummariesByStatus(Post.Status.PUBLISHED,
+                    PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id")));
+            for (PostSummaryResponse post : page) {
+                long count = commentService.countLiveComments(post.getId());
+                UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(countsTable)
+                        .key(Map.of("postId", AttributeValue.builder().s(post.getId().toString()).build()))
+                        .updateExpression("SET commentCount = :count ADD commentVersion :one")
+                        .expressionAttributeValues(Map.of(
+                                ":count", AttributeValue.builder().n(Long.toString(count)).build(),
+                                ":one", AttributeValue.builder().n("1").build()))
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build());
+                capacityMeter.record("UpdateItem", response.consumedCapacity());
+                posts++;
+            }
+        } while (page.hasNext());
+        log.info("Backfilled comment counts of {} posts in {} ms", posts, (System.nanoTime() - start) / 1_000_000);
+    }
+}
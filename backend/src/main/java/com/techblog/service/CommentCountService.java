@@ -0,0 +1,188 @@
+package com.techblog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.techblog.dto.PostSummaryResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bulk reads of the per-post comment counters kept by {@link CommentService}.
+ * A page of posts costs one {@code BatchGetItem} (up to 100 keys per request),
+ * fronted by a short node-local cache so a busy feed does not re-read the
+ * same counters on every request. Posts without a counter have no comments.
+ *
+ * <p>Each counter also carries a version that moves on every create and
+ * delete, which comment pages use as a cheap validator. It is read on the
+ * request path, so a miss is a single {@code GetItem} on the async client,
+ * completed on the application executor rather than the client's threads.
+ *
+ * <p>Counts are for display only: on a DynamoDB failure they are left out
+ * rather than failing the page.
+ */
+@Service
+@Slf4j
+public class CommentCountService {
+
+    static final int MAX_BATCH_KEYS = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 3;
+
+    private static final String PROJECTION = "postId, commentCount, commentVersion";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbCapacityMeter capacityMeter;
+    private final TaskExecutor taskExecutor;
+    private final String countsTable;
+    private final Cache<Long, Counter> counters;
+
+    public CommentCountService(DynamoDbClient dynamoDbClient,
+                               DynamoDbAsyncClient dynamoDbAsyncClient,
+                               DynamoDbCapacityMeter capacityMeter,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                               @Value("${aws.dynamodb.comment-counts-table}") String countsTable,
+                               @Value("${aws.dynamodb.comment-counts-cache-ttl:10s}") Duration cacheTtl) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.capacityMeter = capacityMeter;
+        this.taskExecutor = taskExecutor;
+        this.countsTable = countsTable;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    private record Counter(long count, long version) {
+    }
+
+    /** Comment counts for {@code postIds}; ids whose count could not be read are absent. */
+    public Map<Long, Long> getCounts(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<Long, Long> counts = new HashMap<>();
+            counters.getAll(postIds, this::load).forEach((postId, counter) -> counts.put(postId, counter.count()));
+            return counts;
+        } catch (RuntimeException e) {
+            log.warn("Failed to load comment counts for {} posts", postIds.size(), e);
+            return Map.of();
+        }
+    }
+
+    /** The version of a post's comments; completes with {@code null} if it could not be read. */
+    public CompletableFuture<Long> getVersion(Long postId) {
+        Counter cached = counters.getIfPresent(postId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.version());
+        }
+        return dynamoDbAsyncClient.getItem(GetItemRequest.builder()
+                        .tableName(countsTable)
+                        .key(Map.of("postId", AttributeValue.builder().s(postId.toString()).build()))
+                        .projectionExpression(PROJECTION)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build())
+                .handleAsync((response, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to load comment version of post {}", postId, error);
+                        return null;
+                    }
+                    capacityMeter.record("GetItem", response.consumedCapacity());
+                    Counter counter = response.hasItem() ? counter(response.item()) : new Counter(0L, 0L);
+                    counters.put(postId, counter);
+                    return counter.version();
+                }, taskExecutor);
+    }
+
+    /**
+     * Sets the comment count of each of {@code posts}. Callers attach counts
+     * after the listing's transaction has ended, so a slow or retried batch
+     * read never holds a database connection.
+     */
+    public void attachTo(List<PostSummaryResponse> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> loaded = getCounts(posts.stream().map(PostSummaryResponse::getId).toList());
+        posts.forEach(post -> post.setCommentCount(loaded.get(post.getId())));
+    }
+
+    /** Drops the cached count after a local create or delete so the writer sees it. */
+    public void evict(Long postId) {
+        counters.invalidate(postId);
+    }
+
+    private Map<Long, Counter> load(Set<? extends Long> postIds) {
+        Map<Long, Counter> loaded = new HashMap<>();
+        List<Map<String, AttributeValue>> keys = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            loaded.put(postId, new Counter(0L, 0L));
+            keys.add(Map.of("postId", AttributeValue.builder().s(postId.toString()).build()));
+        }
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_KEYS) {
+            batchGet(keys.subList(from, Math.min(from + MAX_BATCH_KEYS, keys.size())), loaded);
+        }
+        return loaded;
+    }
+
+    private void batchGet(List<Map<String, AttributeValue>> keys, Map<Long, Counter> loaded) {
+        Map<String, KeysAndAttributes> request = Map.of(countsTable, KeysAndAttributes.builder()
+                .keys(keys)
+                .projectionExpression(PROJECTION)
+                .build());
+        for (int attempt = 0; !request.isEmpty(); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new IllegalStateException("Comment counts still unprocessed after retries");
+            }
+            if (attempt > 0) {
+                sleep(25L << attempt);
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(request)
+                    .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                    .build());
+            response.consumedCapacity().forEach(consumed -> capacityMeter.record("BatchGetItem", consumed));
+            response.responses().getOrDefault(countsTable, List.of())
+                    .forEach(item -> loaded.put(Long.valueOf(item.get("postId").s()), counter(item)));
+            request = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+        }
+    }
+
+    private static Counter counter(Map<String, AttributeValue> item) {
+        return new Counter(Math.max(0L, number(item.get("commentCount"))), number(item.get("commentVersion")));
+    }
+
+    private static long number(AttributeValue value) {
+        return value == null ? 0L : Long.parseLong(value.n());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying comment counts", e);
+        }
+    }
+}
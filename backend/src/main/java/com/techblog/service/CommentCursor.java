@@ -0,0 +1,52 @@
+package com.techblog.service;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for comment pages. Wraps the {@code LastEvaluatedKey}
+ * of a comments query (the table key plus the index keys) together with the
+ * sort direction it was produced for, so a cursor cannot be replayed against
+ * another post or the opposite ordering. The index partition attribute is not
+ * encoded: both comment indexes are partitioned by the post id, so a cursor
+ * stays valid when reads move from one index to the other.
+ */
+record CommentCursor(boolean oldestFirst, String postId, String createdAt, String commentId) {
+
+    private static final String SEPARATOR = "|";
+
+    static CommentCursor from(Map<String, AttributeValue> lastEvaluatedKey, String partitionAttribute,
+                              boolean oldestFirst) {
+        return new CommentCursor(oldestFirst, lastEvaluatedKey.get(partitionAttribute).s(),
+                lastEvaluatedKey.get("createdAt").s(), lastEvaluatedKey.get("commentId").s());
+    }
+
+    Map<String, AttributeValue> toExclusiveStartKey(String partitionAttribute) {
+        return Map.of(
+                "commentId", AttributeValue.builder().s(commentId).build(),
+                partitionAttribute, AttributeValue.builder().s(postId).build(),
+                "createdAt", AttributeValue.builder().s(createdAt).build());
+    }
+
+    String encode() {
+        String raw = (oldestFirst ? "o" : "n") + SEPARATOR + postId + SEPARATOR + createdAt + SEPARATOR + commentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CommentCursor decode(String token, Long postId, boolean oldestFirst) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (parts.length != 4 || !parts[0].equals(oldestFirst ? "o" : "n") || !parts[1].equals(postId.toString())
+                || parts[2].isEmpty() || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new CommentCursor(oldestFirst, parts[1], parts[2], parts[3]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.techblog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Map;
+
+/**
+ * One-off migration onto the sparse {@code livePostId-createdAt-index}:
+ * copies {@code postId} into {@code livePostId} on every comment that is not
+ * deleted and lacks it. Enable with
+ * {@code aws.dynamodb.comments-live-index.backfill=true} while reads still use
+ * the legacy index, then switch {@code comments-live-index.enabled} on.
+ *
+ * <p>Safe to run on several nodes or more than once: each update is
+ * conditional on the comment still being live and unmigrated, so it neither
+ * repeats work nor resurrects a comment deleted mid-scan.
+ */
+@Component
+@ConditionalOnProperty(name = "aws.dynamodb.comments-live-index.backfill", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CommentLiveIndexBackfill {
+
+    private static final int SCAN_PAGE_SIZE = 500;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbCapacityMeter capacityMeter;
+
+    @Value("${aws.dynamodb.comments-table}")
+    private String commentsTable;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.nanoTime();
+        int migrated = 0;
+        int skipped = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(commentsTable)
+                    .projectionExpression("commentId")
+                    .filterExpression("attribute_not_exists(livePostId) AND isDeleted = :false")
+                    .expressionAttributeValues(Map.of(":false", AttributeValue.builder().bool(false).build()))
+                    .limit(SCAN_PAGE_SIZE)
+                    .exclusiveStartKey(startKey)
+                    .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                    .build());
+            capacityMeter.record("Scan", page.consumedCapacity());
+            for (Map<String, AttributeValue> item : page.items()) {
+                if (migrate(item.get("commentId"))) {
+                    migrated++;
+                } else {
+                    skipped++;
+                }
+            }
+            startKey = page.hasLastEvaluatedKey() ? page.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        log.info("Backfilled livePostId on {} comments ({} changed concurrently) in {} ms",
+                migrated, skipped, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean migrate(AttributeValue commentId) {
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(commentsTable)
+                    .key(Map.of("commentId", commentId))
+                    .updateExpression("SET livePostId = postId")
+                    .conditionExpression(
+                            "attribute_exists(commentId) AND attribute_not_exists(livePostId) AND isDeleted = :false")
+                    .expressionAttributeValues(Map.of(":false", AttributeValue.builder().bool(false).build()))
+                    .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                    .build());
+            capacityMeter.record("UpdateItem", response.consumedCapacity());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
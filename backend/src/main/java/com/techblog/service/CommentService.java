@@ -2,29 +2,63 @@ package com.techblog.service;
 
 import com.techblog.dto.CommentRequest;
 import com.techblog.dto.CommentResponse;
+import com.techblog.dto.CursorPageResponse;
 import com.techblog.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
+/**
+ * Comments in DynamoDB. Request-path operations run on the async client and
+ * return futures, so no servlet thread waits on DynamoDB; only the streaming
+ * export, which already writes from its own thread, uses the blocking client.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CommentService {
 
+    private static final int MAX_QUERY_ROUNDS = 5;
+    private static final int STREAM_PAGE_SIZE = 100;
+    static final String LIVE_INDEX = "livePostId-createdAt-index";
+    static final String LEGACY_INDEX = "postId-createdAt-index";
+
     private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbCapacityMeter capacityMeter;
+    private final CommentCountService commentCountService;
+    private final CommentCache commentCache;
 
     @Value("${aws.dynamodb.comments-table}")
     private String commentsTable;
 
-    public CommentResponse createComment(Long postId, CommentRequest request, User author) {
+    @Value("${aws.dynamodb.comment-counts-table}")
+    private String countsTable;
+
+    /**
+     * Reads go to the sparse live index once existing comments have been
+     * backfilled with {@code livePostId}; until then the old index is queried
+     * with the {@code isDeleted} filter.
+     */
+    @Value("${aws.dynamodb.comments-live-index.enabled:false}")
+    private boolean liveIndexEnabled;
+
+    /**
+     * Writes the comment and increments the post's counter in one transaction,
+     * so the count can never include a comment that failed to save.
+     */
+    public CompletableFuture<CommentResponse> createComment(Long postId, CommentRequest request, User author) {
         String commentId = UUID.randomUUID().toString();
         Instant now = Instant.now();
 
@@ -35,18 +69,9 @@ public class CommentService {
         item.put("authorUsername", AttributeValue.builder().s(author.getUsername()).build());
         item.put("content", AttributeValue.builder().s(request.getContent()).build());
         item.put("createdAt", AttributeValue.builder().s(now.toString()).build());
+        item.put("livePostId", AttributeValue.builder().s(postId.toString()).build());
         item.put("isDeleted", AttributeValue.builder().bool(false).build());
 
-        try {
-            dynamoDbClient.putItem(PutItemRequest.builder()
-                    .tableName(commentsTable)
-                    .item(item)
-                    .build());
-        } catch (Exception e) {
-            log.error("Failed to save comment to DynamoDB", e);
-            throw new RuntimeException("Failed to save comment", e);
-        }
-
         CommentResponse response = new CommentResponse();
         response.setId(commentId);
         response.setPostId(postId);
@@ -54,63 +79,283 @@ public class CommentService {
         response.setAuthorUsername(author.getUsername());
         response.setContent(request.getContent());
         response.setCreatedAt(now);
-        return response;
+
+        return dynamoDbAsyncClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(
+                                TransactWriteItem.builder().put(Put.builder()
+                                        .tableName(commentsTable)
+                                        .item(item)
+                                        .build()).build(),
+                                TransactWriteItem.builder().update(countUpdate(postId, 1)).build())
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build())
+                .handle((writeResponse, error) -> {
+                    if (error != null) {
+                        log.error("Failed to save comment to DynamoDB", unwrap(error));
+                        throw new RuntimeException("Failed to save comment", unwrap(error));
+                    }
+                    writeResponse.consumedCapacity()
+                            .forEach(consumed -> capacityMeter.record("TransactWriteItems", consumed));
+                    commentCountService.evict(postId);
+                    return response;
+                })
+                .thenCompose(saved -> commentCache.added(saved).thenApply(ignored -> saved));
     }
 
-    public List<CommentResponse> getCommentsByPostId(Long postId) {
-        try {
-            QueryRequest queryRequest = QueryRequest.builder()
-                    .tableName(commentsTable)
-                    .indexName("postId-createdAt-index")
-                    .keyConditionExpression("postId = :postId")
-                    .filterExpression("isDeleted = :isDeleted")
-                    .expressionAttributeValues(Map.of(
-                            ":postId", AttributeValue.builder().s(postId.toString()).build(),
-                            ":isDeleted", AttributeValue.builder().bool(false).build()
-                    ))
-                    .build();
-
-            QueryResponse response = dynamoDbClient.query(queryRequest);
-            return response.items().stream().map(this::toCommentResponse).toList();
-        } catch (Exception e) {
-            log.error("Failed to fetch comments from DynamoDB", e);
-            return Collections.emptyList();
+    /**
+     * One page of a post's live comments. Deleted comments are absent from the
+     * live index, so a page is normally a single query; against the legacy
+     * index DynamoDB applies the {@code isDeleted} filter after {@code Limit}
+     * and a short page is topped up from the last evaluated key, a bounded
+     * number of times. {@code hasMore} follows {@code LastEvaluatedKey} and may
+     * be true on a page that happens to end exactly at the last comment.
+     *
+     * <p>First pages in the default oldest-first order are served from
+     * {@link CommentCache}, which always loads a full head so any smaller
+     * first page can be cut from it.
+     *
+     * <p>A failed query fails the returned future rather than passing for an
+     * empty thread that browsers and CDNs would cache.
+     */
+    public CompletableFuture<CursorPageResponse<CommentResponse>> getComments(Long postId, int limit, String cursor,
+                                                                           boolean oldestFirst) {
+        CompletableFuture<CursorPageResponse<CommentResponse>> page;
+        CommentCache.Lookup lookup = CommentCache.isHeadRequest(limit, cursor, oldestFirst)
+                ? commentCache.lookup(postId)
+                : null;
+        if (lookup != null) {
+            if (lookup.head() != null) {
+                return CompletableFuture.completedFuture(lookup.head().page(limit));
+            }
+            page = queryPage(postId, CommentCache.HEAD_SIZE, null, true).thenCompose(loaded -> {
+                if (loaded.getItems().isEmpty() && loaded.isHasMore()) {
+                    return CompletableFuture.completedFuture(loaded);
+                }
+                CommentCache.Head loadedHead = CommentCache.Head.of(loaded);
+                return commentCache.store(postId, lookup.generation(), loadedHead)
+                        .thenApply(ignored -> loadedHead.page(limit));
+            });
+        } else {
+            Map<String, AttributeValue> startKey = cursor == null || cursor.isBlank()
+                    ? null
+                    : CommentCursor.decode(cursor, postId, oldestFirst).toExclusiveStartKey(partitionAttribute());
+            page = queryPage(postId, limit, startKey, oldestFirst);
         }
+        return page.handle((loaded, error) -> {
+            if (error != null) {
+                log.error("Failed to fetch comments from DynamoDB", unwrap(error));
+                throw new RuntimeException("Failed to fetch comments", unwrap(error));
+            }
+            return loaded;
+        });
     }
 
-    public void deleteComment(String commentId, User currentUser) {
-        try {
-            Map<String, AttributeValue> key = Map.of(
-                    "commentId", AttributeValue.builder().s(commentId).build()
-            );
+    /**
+     * Every live comment of a post, fetched page by page only as the returned
+     * stream is consumed. The caller must close the stream.
+     */
+    public Stream<CommentResponse> streamComments(Long postId, boolean oldestFirst) {
+        return dynamoDbClient.queryPaginator(commentsQuery(postId, oldestFirst).limit(STREAM_PAGE_SIZE).build())
+                .stream()
+                .peek(page -> capacityMeter.record("Query", page.consumedCapacity()))
+                .flatMap(page -> page.items().stream())
+                .map(this::toCommentResponse);
+    }
 
-            Map<String, AttributeValue> item = dynamoDbClient.getItem(
-                    GetItemRequest.builder().tableName(commentsTable).key(key).build()
-            ).item();
+    /**
+     * Soft-deletes in one conditional write: the condition requires the comment
+     * to exist and be live and, unless the caller is an admin, to be theirs. On
+     * failure DynamoDB returns the current item, which tells a missing comment
+     * apart from someone else's or an already deleted one without a prior read.
+     *
+     * <p>The post id is only known from the write's result, so the counter is
+     * decremented right after it rather than in the same transaction; deleting
+     * an already deleted comment succeeds without touching the counter.
+     */
+    public CompletableFuture<Void> deleteComment(String commentId, User currentUser) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":del", AttributeValue.builder().bool(true).build());
+        values.put(":live", AttributeValue.builder().bool(false).build());
+        String condition = "attribute_exists(commentId) AND isDeleted = :live";
+        boolean admin = currentUser.getRole() == User.Role.ADMIN;
+        if (!admin) {
+            condition += " AND authorId = :authorId";
+            values.put(":authorId", AttributeValue.builder().s(currentUser.getId().toString()).build());
+        }
 
-            if (item == null || item.isEmpty()) {
-                throw new IllegalArgumentException("Comment not found");
-            }
+        // Dropping livePostId takes the comment out of the sparse live index.
+        return dynamoDbAsyncClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(commentsTable)
+                        .key(Map.of("commentId", AttributeValue.builder().s(commentId).build()))
+                        .updateExpression("SET isDeleted = :del REMOVE livePostId")
+                        .conditionExpression(condition)
+                        .expressionAttributeValues(values)
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        capacityMeter.record("UpdateItem", response.consumedCapacity());
+                        return Long.valueOf(response.attributes().get("postId").s());
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof ConditionalCheckFailedException failed) {
+                        if (!failed.hasItem() || failed.item().isEmpty()) {
+                            throw new IllegalArgumentException("Comment not found");
+                        }
+                        AttributeValue authorId = failed.item().get("authorId");
+                        if (!admin && (authorId == null || !authorId.s().equals(currentUser.getId().toString()))) {
+                            throw new AccessDeniedException("Not authorized");
+                        }
+                        return null;
+                    }
+                    log.error("Failed to delete comment", cause);
+                    throw new RuntimeException("Failed to delete comment", cause);
+                })
+                .thenCompose(postId -> postId == null
+                        ? CompletableFuture.<Void>completedFuture(null)
+                        : commentCache.removed(postId, commentId).thenCompose(ignored -> decrementCount(postId)));
+    }
 
-            String authorId = item.get("authorId").s();
-            if (!authorId.equals(currentUser.getId().toString()) && currentUser.getRole() != User.Role.ADMIN) {
-                throw new AccessDeniedException("Not authorized");
-            }
+    /**
+     * Re-counts a post's live comments from the index, for backfilling the
+     * counter of posts commented on before counters existed.
+     */
+    long countLiveComments(Long postId) {
+        return dynamoDbClient.queryPaginator(commentsQuery(postId, true).select(Select.COUNT).build())
+                .stream()
+                .peek(page -> capacityMeter.record("Query", page.consumedCapacity()))
+                .mapToLong(QueryResponse::count)
+                .sum();
+    }
+
+    private CompletableFuture<Void> decrementCount(Long postId) {
+        Update update = countUpdate(postId, -1);
+        Map<String, AttributeValue> values = new HashMap<>(update.expressionAttributeValues());
+        values.put(":zero", AttributeValue.builder().n("0").build());
+        return dynamoDbAsyncClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(update.tableName())
+                        .key(update.key())
+                        .updateExpression(update.updateExpression())
+                        .conditionExpression("commentCount > :zero")
+                        .expressionAttributeValues(values)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        capacityMeter.record("UpdateItem", response.consumedCapacity());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    if (unwrap(error) instanceof ConditionalCheckFailedException) {
+                        // The counter is already at zero; the version still has to move for validators.
+                        return bumpVersion(postId);
+                    }
+                    // The comment is already deleted; a lost decrement only skews the displayed count.
+                    log.warn("Failed to decrement comment count of post {}", postId, unwrap(error));
+                    return CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenCompose(next -> next)
+                .whenComplete((ignored, error) -> commentCountService.evict(postId));
+    }
+
+    private CompletableFuture<Void> bumpVersion(Long postId) {
+        return dynamoDbAsyncClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(countsTable)
+                        .key(Map.of("postId", AttributeValue.builder().s(postId.toString()).build()))
+                        .updateExpression("ADD commentVersion :one")
+                        .expressionAttributeValues(Map.of(":one", AttributeValue.builder().n("1").build()))
+                        .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES)
+                        .build())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        capacityMeter.record("UpdateItem", response.consumedCapacity());
+                    } else {
+                        log.warn("Failed to bump comment version of post {}", postId, unwrap(error));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Moves a post's counter by {@code delta} and bumps its version, which
+     * changes on every create and delete and is what comment-page validators
+     * are derived from.
+     */
+    private Update countUpdate(Long postId, int delta) {
+        return Update.builder()
+                .tableName(countsTable)
+                .key(Map.of("postId", AttributeValue.builder().s(postId.toString()).build()))
+                .updateExpression("ADD commentCount :delta, commentVersion :one")
+                .expressionAttributeValues(Map.of(
+                        ":delta", AttributeValue.builder().n(Integer.toString(delta)).build(),
+                        ":one", AttributeValue.builder().n("1").build()))
+                .build();
+    }
+
+    private CompletableFuture<CursorPageResponse<CommentResponse>> queryPage(Long postId, int limit,
+                                                                          Map<String, AttributeValue> startKey,
+                                                                          boolean oldestFirst) {
+        List<CommentResponse> comments = new ArrayList<>(limit);
+        return fillPage(postId, oldestFirst, limit, startKey, comments, 1).thenApply(lastKey -> {
+            String nextCursor = lastKey == null
+                    ? null
+                    : CommentCursor.from(lastKey, partitionAttribute(), oldestFirst).encode();
+            return new CursorPageResponse<>(comments, nextCursor, nextCursor != null);
+        });
+    }
+
+    /**
+     * Queries from {@code startKey} into {@code comments} until the page is
+     * full, the index is exhausted or {@link #MAX_QUERY_ROUNDS} is reached;
+     * completes with the key to resume from, or {@code null} at the end.
+     */
+    private CompletableFuture<Map<String, AttributeValue>> fillPage(Long postId, boolean oldestFirst, int limit,
+                                                                    Map<String, AttributeValue> startKey,
+                                                                    List<CommentResponse> comments, int round) {
+        return dynamoDbAsyncClient.query(commentsQuery(postId, oldestFirst)
+                        .limit(limit - comments.size())
+                        .exclusiveStartKey(startKey)
+                        .build())
+                .thenCompose(response -> {
+                    capacityMeter.record("Query", response.consumedCapacity());
+                    response.items().forEach(item -> comments.add(toCommentResponse(item)));
+                    Map<String, AttributeValue> lastKey = response.hasLastEvaluatedKey()
+                            ? response.lastEvaluatedKey()
+                            : null;
+                    if (lastKey == null || comments.size() >= limit || round >= MAX_QUERY_ROUNDS) {
+                        return CompletableFuture.completedFuture(lastKey);
+                    }
+                    return fillPage(postId, oldestFirst, limit, lastKey, comments, round + 1);
+                });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private String partitionAttribute() {
+        return liveIndexEnabled ? "livePostId" : "postId";
+    }
 
-            dynamoDbClient.updateItem(UpdateItemRequest.builder()
-                    .tableName(commentsTable)
-                    .key(key)
-                    .updateExpression("SET isDeleted = :del")
-                    .expressionAttributeValues(Map.of(
-                            ":del", AttributeValue.builder().bool(true).build()
-                    ))
-                    .build());
-        } catch (IllegalArgumentException | AccessDeniedException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("Failed to delete comment", e);
-            throw new RuntimeException("Failed to delete comment", e);
+    private QueryRequest.Builder commentsQuery(Long postId, boolean oldestFirst) {
+        QueryRequest.Builder builder = QueryRequest.builder()
+                .tableName(commentsTable)
+                .scanIndexForward(oldestFirst)
+                .returnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+        AttributeValue postIdValue = AttributeValue.builder().s(postId.toString()).build();
+        if (liveIndexEnabled) {
+            return builder.indexName(LIVE_INDEX)
+                    .keyConditionExpression("livePostId = :postId")
+                    .expressionAttributeValues(Map.of(":postId", postIdValue));
         }
+        return builder.indexName(LEGACY_INDEX)
+                .keyConditionExpression("postId = :postId")
+                .filterExpression("isDeleted = :isDeleted")
+                .expressionAttributeValues(Map.of(
+                        ":postId", postIdValue,
+                        ":isDeleted", AttributeValue.builder().bool(false).build()
+                ));
     }
 
     private CommentResponse toCommentResponse(Map<String, AttributeValue> item) {
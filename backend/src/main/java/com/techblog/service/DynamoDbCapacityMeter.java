@@ -0,0 +1,45 @@
+package com.techblog.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+/**
+ * Records the capacity units DynamoDB reports for each request as the
+ * {@code dynamodb.consumed.capacity} summary, tagged by table, index and
+ * operation, so read and write costs can be compared across releases.
+ * Requests must ask for {@code ReturnConsumedCapacity.INDEXES}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DynamoDbCapacityMeter {
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(String operation, ConsumedCapacity consumed) {
+        if (consumed == null) {
+            return;
+        }
+        if (consumed.table() != null && consumed.table().capacityUnits() != null) {
+            summary(consumed.tableName(), "table", operation).record(consumed.table().capacityUnits());
+        }
+        if (consumed.globalSecondaryIndexes() != null) {
+            consumed.globalSecondaryIndexes().forEach((index, capacity) -> {
+                if (capacity.capacityUnits() != null) {
+                    summary(consumed.tableName(), index, operation).record(capacity.capacityUnits());
+                }
+            });
+        }
+    }
+
+    private DistributionSummary summary(String table, String index, String operation) {
+        return DistributionSummary.builder("dynamodb.consumed.capacity")
+                .baseUnit("capacity_units")
+                .tag("table", table == null ? "unknown" : table)
+                .tag("index", index)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostSummaryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for the keyset-paginated feed. Encodes the
+ * {@code (created_at, id)} position of the last post returned so the next
+ * page can seek past it instead of using an OFFSET.
+ */
+record FeedCursor(Instant createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static FeedCursor after(PostSummaryResponse post) {
+        return new FeedCursor(post.getCreatedAt(), post.getId());
+    }
+
+    String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new FeedCursor(Instant.parse(raw.substring(0, idx)), Long.parseLong(raw.substring(idx + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.techblog.service;
+
+import com.techblog.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Version of the post listings, read in one Redis round trip so a listing can
+ * be revalidated before any of it is loaded. A shared token is replaced after
+ * every committed post change and every flush of like counts; a per-user token
+ * is replaced after each of the user's likes, which change their
+ * {@code likedByCurrentUser} flags. View and comment counts are not covered.
+ *
+ * <p>Tokens are random rather than counters, so a key lost to eviction or a
+ * Redis restart is recreated with a value no earlier validator can match. All
+ * keys share a hash tag so the read script also runs on a clustered Redis.
+ * When Redis is unavailable listings are served without a validator.
+ */
+@Component
+@Slf4j
+public class ListingVersion {
+
+    static final String KEY = "listing:{version}";
+    private static final String USER_KEY_PREFIX = "listing:{version}:user:";
+
+    /** KEYS: version keys. ARGV: token to create missing keys with. Returns the values in key order. */
+    private static final RedisScript<List> READ = RedisScript.of("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+              local value = redis.call('GET', key)
+              if not value then
+                value = ARGV[1]
+                redis.call('SET', key, value)
+              end
+              result[i] = value
+            end
+            return result
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+
+    public ListingVersion(StringRedisTemplate redisTemplate,
+                          @Value("${posts.listing-version.enabled:true}") boolean enabled) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+    }
+
+    /** The version of the listings as {@code currentUser} sees them; {@code null} if unavailable. */
+    public String current(User currentUser) {
+        if (!enabled) {
+            return null;
+        }
+        List<String> keys = currentUser == null ? List.of(KEY) : List.of(KEY, USER_KEY_PREFIX + currentUser.getId());
+        try {
+            List<?> values = redisTemplate.execute(READ, keys, newToken());
+            if (values == null || values.size() != keys.size()) {
+                return null;
+            }
+            return currentUser == null ? (String) values.get(0)
+                    : values.get(0) + ":" + currentUser.getId() + ":" + values.get(1);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the listing version", e);
+            return null;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        replace(KEY);
+    }
+
+    @EventListener
+    public void onCountersFlushed(PostCountersFlushedEvent event) {
+        if (!event.likedPostIds().isEmpty()) {
+            replace(KEY);
+        }
+    }
+
+    /** Called after a like or unlike by {@code userId} has committed. */
+    public void likesChanged(Long userId) {
+        replace(USER_KEY_PREFIX + userId);
+    }
+
+    /**
+     * A failed replace leaves listings revalidating against the old token until
+     * the next change; it is logged rather than failing the committed write.
+     */
+    private void replace(String key) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, newToken());
+        } catch (RuntimeException e) {
+            log.warn("Failed to replace listing version {}", key, e);
+        }
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.techblog.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MinHash signatures over a post's tags and word shingles. The fraction of
+ * equal positions in two signatures estimates the Jaccard similarity of the
+ * underlying feature sets.
+ *
+ * <p>Tags are few next to the hundreds of shingles in a body, so each tag is
+ * entered {@link #TAG_WEIGHT} times as distinct features to give shared tags
+ * a noticeable share of the similarity.
+ */
+final class MinHasher {
+
+    static final int SIGNATURE_LENGTH = 128;
+    static final int SHINGLE_SIZE = 3;
+    static final int TAG_WEIGHT = 8;
+
+    private final long[] seeds = new long[SIGNATURE_LENGTH];
+
+    MinHasher() {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed = mix(seed + i);
+            seeds[i] = seed;
+        }
+    }
+
+    long[] signature(String title, String content, Set<String> tags) {
+        Set<Long> features = new HashSet<>();
+        for (String tag : tags) {
+            for (int copy = 0; copy < TAG_WEIGHT; copy++) {
+                features.add(hash("#" + tag + "#" + copy));
+            }
+        }
+        List<String> words = words(title);
+        words.addAll(words(content));
+        if (words.size() < SHINGLE_SIZE) {
+            words.forEach(word -> features.add(hash(word)));
+        }
+        for (int i = 0; i + SHINGLE_SIZE <= words.size(); i++) {
+            features.add(hash(String.join(" ", words.subList(i, i + SHINGLE_SIZE))));
+        }
+
+        long[] signature = new long[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                long h = mix(feature ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /** 64-bit FNV-1a, finished with {@link #mix} for better low-bit dispersion. */
+    private static long hash(String feature) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            h ^= feature.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /** SplitMix64 finaliser. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
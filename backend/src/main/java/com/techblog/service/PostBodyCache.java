@@ -0,0 +1,198 @@
+package com.techblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.techblog.dto.PostResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Node-local cache of the serialized JSON body of hot articles, both as plain
+ * bytes and pre-deflated, so repeat reads skip Jackson and most of gzip.
+ *
+ * <p>The cached prefix is the detail JSON without its closing brace and without
+ * the per-request fields ({@code viewCount}, {@code likeCount},
+ * {@code likedByCurrentUser}). Those are appended per request as a short tail.
+ * For gzip the prefix is stored as a sync-flushed raw deflate stream, so the
+ * tail can be compressed on its own and the two concatenated into one valid
+ * gzip member. The prefix's CRC-32 is stored too and continued over the tail,
+ * so per-request gzip work is proportional to the tail alone.
+ *
+ * <p>Entries are keyed by post id and only served while the detail's
+ * {@code updatedAt} matches, so another node's update is never served stale;
+ * local updates and deletes also evict explicitly.
+ */
+@Component
+public class PostBodyCache {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int[] CRC_TABLE = crcTable();
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, PostBody> bodies;
+
+    public PostBodyCache(ObjectMapper objectMapper,
+                         @Value("${posts.body-cache.maximum-bytes:67108864}") long maximumBytes) {
+        this.objectMapper = objectMapper;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<Long, PostBody>weigher((postId, body) -> body.weight())
+                .build();
+    }
+
+    /**
+     * Returns the JSON body for {@code view}, gzip-encoded when {@code gzip} is set.
+     */
+    public byte[] render(PostView view, boolean gzip) {
+        PostBody body = get(view.detail());
+        byte[] tail = tail(view);
+        return gzip ? body.gzip(tail) : body.identity(tail);
+    }
+
+    public void evict(Long postId) {
+        bodies.invalidate(postId);
+    }
+
+    private PostBody get(PostResponse detail) {
+        PostBody body = bodies.getIfPresent(detail.getId());
+        if (body == null || !Objects.equals(body.updatedAt(), detail.getUpdatedAt())) {
+            body = serialize(detail);
+            bodies.put(detail.getId(), body);
+        }
+        return body;
+    }
+
+    private PostBody serialize(PostResponse detail) {
+        ObjectNode node = objectMapper.valueToTree(detail);
+        node.remove("viewCount");
+        node.remove("likeCount");
+        node.remove("likedByCurrentUser");
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize post " + detail.getId(), e);
+        }
+        byte[] prefix = new byte[json.length - 1];
+        System.arraycopy(json, 0, prefix, 0, prefix.length);
+        CRC32 crc = new CRC32();
+        crc.update(prefix);
+        return new PostBody(detail.getUpdatedAt(), prefix, deflateOpen(prefix), crc.getValue());
+    }
+
+    private static byte[] tail(PostView view) {
+        String tail = ",\"viewCount\":" + view.viewCount()
+                + ",\"likeCount\":" + view.likeCount()
+                + ",\"likedByCurrentUser\":" + view.likedByCurrentUser() + "}";
+        return tail.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Raw deflate of {@code input} ending in a sync flush: byte-aligned, no final
+     * block, so more deflate blocks can follow.
+     */
+    private static byte[] deflateOpen(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 3));
+            byte[] buffer = new byte[8192];
+            int count;
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, count);
+            } while (count == buffer.length);
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Raw deflate of {@code input} ending in a final block.
+     */
+    private static byte[] deflateFinal(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length + 16);
+            byte[] buffer = new byte[256];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Continues the CRC-32 {@code crc} of earlier bytes over {@code input}, as
+     * {@link CRC32} would had it seen both; {@link CRC32} itself cannot resume
+     * from a stored value.
+     */
+    static long crc32(long crc, byte[] input) {
+        int c = ~(int) crc;
+        for (byte b : input) {
+            c = CRC_TABLE[(c ^ b) & 0xff] ^ (c >>> 8);
+        }
+        return ~c & 0xffffffffL;
+    }
+
+    private static int[] crcTable() {
+        int[] table = new int[256];
+        for (int n = 0; n < table.length; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xedb88320 ^ (c >>> 1) : c >>> 1;
+            }
+            table[n] = c;
+        }
+        return table;
+    }
+
+    private record PostBody(Instant updatedAt, byte[] prefix, byte[] deflatedPrefix, long prefixCrc) {
+
+        int weight() {
+            return prefix.length + deflatedPrefix.length;
+        }
+
+        byte[] identity(byte[] tail) {
+            byte[] body = new byte[prefix.length + tail.length];
+            System.arraycopy(prefix, 0, body, 0, prefix.length);
+            System.arraycopy(tail, 0, body, prefix.length, tail.length);
+            return body;
+        }
+
+        byte[] gzip(byte[] tail) {
+            long crc = crc32(prefixCrc, tail);
+            long size = prefix.length + tail.length;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflatedPrefix.length + tail.length + 32);
+            out.writeBytes(GZIP_HEADER);
+            out.writeBytes(deflatedPrefix);
+            out.writeBytes(deflateFinal(tail));
+            writeIntLE(out, crc);
+            writeIntLE(out, size);
+            return out.toByteArray();
+        }
+
+        private static void writeIntLE(ByteArrayOutputStream out, long value) {
+            out.write((int) (value & 0xff));
+            out.write((int) ((value >> 8) & 0xff));
+            out.write((int) ((value >> 16) & 0xff));
+            out.write((int) ((value >> 24) & 0xff));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.techblog.service;
+
+import com.techblog.cache.SingleFlightCacheLoader;
+import com.techblog.dto.PostResponse;
+import com.techblog.dto.PostSummaryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Targeted caching for posts. Each post summary is cached once, by id, in
+ * {@value #POSTS}; feed pages in {@value #FEED} only hold the ordered post ids.
+ * A counter or content change therefore touches a single post entry, and feed
+ * pages are only dropped when feed membership changes.
+ *
+ * <p>Article pages read the user-independent detail from {@value #POST_DETAILS}
+ * (by id, resolved through {@value #POST_SLUGS}); live counters come from the
+ * summary entry so counter flushes never evict the larger detail entry.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostCache {
+
+    public static final String POSTS = "posts";
+    public static final String FEED = "feed";
+    public static final String POST_DETAILS = "postDetails";
+    public static final String POST_SLUGS = "postSlugs";
+
+    private final CacheManager cacheManager;
+    private final SingleFlightCacheLoader cacheLoader;
+
+    public record FeedPage(List<Long> postIds, long total) implements Serializable {
+    }
+
+    /**
+     * Feed cache key covering everything that determines page membership, e.g.
+     * {@code page:0:10:createdAt,desc}.
+     */
+    public static String feedKey(Pageable pageable) {
+        String sort = pageable.getSort().stream()
+                .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(";"));
+        return "page:" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + sort;
+    }
+
+    /**
+     * Returns the cached feed page, loading it with {@code loader} on a miss. Only
+     * one thread per key runs the loader; hot pages are refreshed ahead of expiry.
+     */
+    public FeedPage getFeedPage(String key, Supplier<FeedPage> loader) {
+        return cacheLoader.get(cache(FEED), key, FeedPage.class, loader);
+    }
+
+    public void putPosts(Collection<PostSummaryResponse> posts) {
+        Cache cache = cache(POSTS);
+        posts.forEach(post -> cache.put(post.getId(), post));
+    }
+
+    /**
+     * Returns the cached summaries for {@code postIds} in the given order, loading
+     * and caching any misses with a single call to {@code loader}. Posts the loader
+     * no longer returns are skipped.
+     */
+    public List<PostSummaryResponse> getPosts(List<Long> postIds,
+                                              Function<Collection<Long>, List<PostSummaryResponse>> loader) {
+        Cache cache = cache(POSTS);
+        Map<Long, PostSummaryResponse> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long postId : postIds) {
+            PostSummaryResponse post = cache.get(postId, PostSummaryResponse.class);
+            if (post != null) {
+                found.put(postId, post);
+            } else {
+                missing.add(postId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<PostSummaryResponse> loaded = loader.apply(missing);
+            putPosts(loaded);
+            loaded.forEach(post -> found.put(post.getId(), post));
+        }
+        return postIds.stream().map(found::get).filter(post -> post != null).toList();
+    }
+
+    /**
+     * Returns the cached user-independent detail for {@code slug}, resolving
+     * the id with {@code idLoader} and loading the detail with {@code loader}
+     * on a miss. The returned instance is shared. Both entries are only written
+     * through {@link SingleFlightCacheLoader}, so a load racing an eviction
+     * never caches its result.
+     */
+    public PostResponse getDetail(String slug, Function<String, Long> idLoader,
+                                  Function<String, PostResponse> loader) {
+        Long postId = cacheLoader.get(cache(POST_SLUGS), slug, Long.class, () -> idLoader.apply(slug));
+        return cacheLoader.get(cache(POST_DETAILS), postId, PostResponse.class, () -> loader.apply(slug));
+    }
+
+    public void evictDetail(Long postId, String slug) {
+        cacheLoader.evict(cache(POST_DETAILS), postId);
+        cacheLoader.evict(cache(POST_SLUGS), slug);
+    }
+
+    public void evictPost(Long postId) {
+        cacheLoader.evict(cache(POSTS), postId);
+    }
+
+    public void evictFeed() {
+        cacheLoader.clear(cache(FEED));
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+}
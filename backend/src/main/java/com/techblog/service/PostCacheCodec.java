@@ -0,0 +1,371 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostResponse;
+import com.techblog.dto.PostSummaryResponse;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary Redis value codec for the post caches. Known value types are
+ * written field by field in a fixed order using varints, with no class names or
+ * property names; anything else falls back to JDK serialization. Payloads larger
+ * than the compression threshold are deflated.
+ *
+ * <p>Layout: one header byte (type tag, plus {@link #COMPRESSED} when deflated),
+ * one schema version byte, then the payload. Entries written with a different
+ * schema version decode to {@code null}, which the cache treats as a miss.
+ */
+public class PostCacheCodec implements RedisSerializer<Object> {
+
+    static final int SCHEMA_VERSION = 1;
+
+    private static final int TAG_JDK = 0;
+    private static final int TAG_LONG = 1;
+    private static final int TAG_FEED_PAGE = 2;
+    private static final int TAG_SUMMARY = 3;
+    private static final int TAG_DETAIL = 4;
+    private static final int COMPRESSED = 0x80;
+
+    private final RedisSerializer<Object> fallback = new JdkSerializationRedisSerializer();
+    private final int compressionThreshold;
+
+    public PostCacheCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        Writer out = new Writer();
+        int tag;
+        if (value instanceof Long id) {
+            tag = TAG_LONG;
+            out.writeVarLong(id);
+        } else if (value instanceof PostCache.FeedPage page) {
+            tag = TAG_FEED_PAGE;
+            writeFeedPage(out, page);
+        } else if (value instanceof PostSummaryResponse summary) {
+            tag = TAG_SUMMARY;
+            writeSummary(out, summary);
+        } else if (value instanceof PostResponse detail) {
+            tag = TAG_DETAIL;
+            writeDetail(out, detail);
+        } else {
+            tag = TAG_JDK;
+            out.writeBytes(fallback.serialize(value));
+        }
+
+        byte[] payload = out.toByteArray();
+        if (payload.length >= compressionThreshold) {
+            return frame(tag | COMPRESSED, deflate(payload));
+        }
+        return frame(tag, payload);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 2) {
+            return null;
+        }
+        if (bytes[1] != SCHEMA_VERSION) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        byte[] payload = Arrays.copyOfRange(bytes, 2, bytes.length);
+        if ((header & COMPRESSED) != 0) {
+            payload = inflate(payload);
+        }
+
+        Reader in = new Reader(payload);
+        return switch (header & ~COMPRESSED) {
+            case TAG_LONG -> in.readVarLong();
+            case TAG_FEED_PAGE -> readFeedPage(in);
+            case TAG_SUMMARY -> readSummary(in);
+            case TAG_DETAIL -> readDetail(in);
+            case TAG_JDK -> fallback.deserialize(payload);
+            default -> null;
+        };
+    }
+
+    private static void writeFeedPage(Writer out, PostCache.FeedPage page) {
+        out.writeVarLong(page.total());
+        out.writeVarInt(page.postIds().size());
+        long previous = 0;
+        for (Long postId : page.postIds()) {
+            out.writeVarLong(zigZag(postId - previous));
+            previous = postId;
+        }
+    }
+
+    private static PostCache.FeedPage readFeedPage(Reader in) {
+        long total = in.readVarLong();
+        int size = in.readVarInt();
+        List<Long> postIds = new ArrayList<>(size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += unZigZag(in.readVarLong());
+            postIds.add(previous);
+        }
+        return new PostCache.FeedPage(List.copyOf(postIds), total);
+    }
+
+    private static void writeSummary(Writer out, PostSummaryResponse post) {
+        out.writeNullableLong(post.getId());
+        out.writeString(post.getTitle());
+        out.writeString(post.getSlug());
+        out.writeString(post.getExcerpt());
+        out.writeString(post.getCoverImageUrl());
+        out.writeString(post.getAuthorUsername());
+        out.writeNullableLong(post.getAuthorId());
+        out.writeString(post.getStatus());
+        out.writeNullableInt(post.getViewCount());
+        out.writeNullableInt(post.getLikeCount());
+        out.writeString(post.getTags());
+        out.writeInstant(post.getCreatedAt());
+        out.writeInstant(post.getUpdatedAt());
+        out.writeBoolean(post.isLikedByCurrentUser());
+    }
+
+    private static PostSummaryResponse readSummary(Reader in) {
+        PostSummaryResponse post = new PostSummaryResponse();
+        post.setId(in.readNullableLong());
+        post.setTitle(in.readString());
+        post.setSlug(in.readString());
+        post.setExcerpt(in.readString());
+        post.setCoverImageUrl(in.readString());
+        post.setAuthorUsername(in.readString());
+        post.setAuthorId(in.readNullableLong());
+        post.setStatus(in.readString());
+        post.setViewCount(in.readNullableInt());
+        post.setLikeCount(in.readNullableInt());
+        post.setTags(in.readString());
+        post.setCreatedAt(in.readInstant());
+        post.setUpdatedAt(in.readInstant());
+        post.setLikedByCurrentUser(in.readBoolean());
+        return post;
+    }
+
+    private static void writeDetail(Writer out, PostResponse post) {
+        out.writeNullableLong(post.getId());
+        out.writeString(post.getTitle());
+        out.writeString(post.getSlug());
+        out.writeString(post.getContent());
+        out.writeString(post.getExcerpt());
+        out.writeString(post.getCoverImageUrl());
+        out.writeString(post.getAuthorUsername());
+        out.writeNullableLong(post.getAuthorId());
+        out.writeString(post.getStatus());
+        out.writeNullableInt(post.getViewCount());
+        out.writeNullableInt(post.getLikeCount());
+        out.writeString(post.getTags());
+        out.writeInstant(post.getCreatedAt());
+        out.writeInstant(post.getUpdatedAt());
+        out.writeBoolean(post.isLikedByCurrentUser());
+    }
+
+    private static PostResponse readDetail(Reader in) {
+        PostResponse post = new PostResponse();
+        post.setId(in.readNullableLong());
+        post.setTitle(in.readString());
+        post.setSlug(in.readString());
+        post.setContent(in.readString());
+        post.setExcerpt(in.readString());
+        post.setCoverImageUrl(in.readString());
+        post.setAuthorUsername(in.readString());
+        post.setAuthorId(in.readNullableLong());
+        post.setStatus(in.readString());
+        post.setViewCount(in.readNullableInt());
+        post.setLikeCount(in.readNullableInt());
+        post.setTags(in.readString());
+        post.setCreatedAt(in.readInstant());
+        post.setUpdatedAt(in.readInstant());
+        post.setLikedByCurrentUser(in.readBoolean());
+        return post;
+    }
+
+    private static byte[] frame(int header, byte[] payload) {
+        byte[] framed = new byte[payload.length + 2];
+        framed[0] = (byte) header;
+        framed[1] = (byte) SCHEMA_VERSION;
+        System.arraycopy(payload, 0, framed, 2, payload.length);
+        return framed;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            Writer out = new Writer();
+            out.writeVarInt(payload.length);
+            byte[] buffer = new byte[Math.max(64, payload.length / 2)];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Reader in = new Reader(compressed);
+        int length = in.readVarInt();
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, in.position, compressed.length - in.position);
+            byte[] payload = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int count = inflater.inflate(payload, offset, length - offset);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new SerializationException("Truncated cache entry");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt cache entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeBoolean(boolean value) {
+            write(value ? 1 : 0);
+        }
+
+        void writeNullableLong(Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeVarLong(zigZag(value));
+            }
+        }
+
+        void writeNullableInt(Integer value) {
+            writeNullableLong(value == null ? null : value.longValue());
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            writeBytes(bytes);
+        }
+
+        void writeInstant(Instant value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeVarLong(zigZag(value.getEpochSecond()));
+                writeVarInt(value.getNano());
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= bytes.length || shift > 63) {
+                    throw new SerializationException("Malformed varint in cache entry");
+                }
+                byte b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+
+        boolean readBoolean() {
+            if (position >= bytes.length) {
+                throw new SerializationException("Truncated cache entry");
+            }
+            return bytes[position++] != 0;
+        }
+
+        Long readNullableLong() {
+            return readBoolean() ? unZigZag(readVarLong()) : null;
+        }
+
+        Integer readNullableInt() {
+            Long value = readNullableLong();
+            return value == null ? null : value.intValue();
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length -= 1;
+            if (length < 0 || position + length > bytes.length) {
+                throw new SerializationException("Truncated cache entry");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Instant readInstant() {
+            if (!readBoolean()) {
+                return null;
+            }
+            long seconds = unZigZag(readVarLong());
+            return Instant.ofEpochSecond(seconds, readVarInt());
+        }
+    }
+}
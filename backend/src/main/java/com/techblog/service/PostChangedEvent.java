@@ -0,0 +1,11 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+
+/**
+ * Published by {@link PostService} when a post is created, updated or deleted.
+ * Listeners that maintain derived in-memory structures should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+public record PostChangedEvent(Post post, boolean deleted) {
+}
@@ -0,0 +1,121 @@
+package com.techblog.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for the {@code view_count} and {@code like_count} columns.
+ * Deltas are striped per post in a {@link LongAdder} and applied to Postgres as
+ * batched UPDATEs once per flush interval, so popular posts never turn into hot
+ * rows that every reader or liker has to lock.
+ *
+ * <p>Loss bound: deltas recorded since the last successful flush are lost if the
+ * JVM dies without running the shutdown flush, i.e. at most
+ * {@code posts.counters.flush-interval-ms} worth of views and likes per node. A
+ * view racing with the eviction of an idle counter may also be dropped. Like
+ * rows themselves are written synchronously, so a lost like delta only skews
+ * the denormalized counter.
+ *
+ * <p>Each batch is applied in one transaction, so a batch that fails partway
+ * leaves no rows updated and re-queueing all of its deltas never applies any
+ * of them twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterBuffer {
+
+    private static final String FLUSH_VIEWS_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+    private static final String FLUSH_LIKES_SQL =
+            "UPDATE posts SET like_count = GREATEST(like_count + ?, 0) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> pendingLikes = new ConcurrentHashMap<>();
+
+    public void recordView(Long postId) {
+        pendingViews.computeIfAbsent(postId, id -> new LongAdder()).increment();
+    }
+
+    public void recordLike(Long postId, int delta) {
+        pendingLikes.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Views recorded for the post that are not yet visible in {@code posts.view_count}.
+     */
+    public long pendingViews(Long postId) {
+        return pending(pendingViews, postId);
+    }
+
+    /**
+     * Like delta recorded for the post that is not yet visible in {@code posts.like_count}.
+     */
+    public long pendingLikes(Long postId) {
+        return pending(pendingLikes, postId);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Set<Long> viewed = flush(pendingViews, FLUSH_VIEWS_SQL, "view");
+        Set<Long> liked = flush(pendingLikes, FLUSH_LIKES_SQL, "like");
+        if (!viewed.isEmpty() || !liked.isEmpty()) {
+            eventPublisher.publishEvent(new PostCountersFlushedEvent(viewed, liked));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Set<Long> flush(Map<Long, LongAdder> pending, String sql, String counter) {
+        List<Object[]> batch = new ArrayList<>();
+        pending.forEach((postId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                batch.add(new Object[]{delta, postId});
+            } else {
+                pending.remove(postId, adder);
+            }
+        });
+        if (batch.isEmpty()) {
+            return Set.of();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Failed to flush {} counts for {} posts, re-queueing", counter, batch.size(), e);
+            batch.forEach(row -> pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]));
+            return Set.of();
+        }
+
+        Set<Long> postIds = new HashSet<>();
+        batch.forEach(row -> postIds.add((Long) row[1]));
+        return postIds;
+    }
+
+    private static long pending(Map<Long, LongAdder> pending, Long postId) {
+        LongAdder adder = pending.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+}
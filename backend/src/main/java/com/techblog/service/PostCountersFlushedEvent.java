@@ -0,0 +1,10 @@
+package com.techblog.service;
+
+import java.util.Set;
+
+/**
+ * Published by {@link PostCounterBuffer} after buffered deltas have been written
+ * to the {@code posts} table.
+ */
+public record PostCountersFlushedEvent(Set<Long> viewedPostIds, Set<Long> likedPostIds) {
+}
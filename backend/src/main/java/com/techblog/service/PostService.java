@@ -1,7 +1,9 @@
 package com.techblog.service;
 
+import com.techblog.dto.CursorPageResponse;
 import com.techblog.dto.PostRequest;
 import com.techblog.dto.PostResponse;
+import com.techblog.dto.PostSummaryResponse;
 import com.techblog.entity.Post;
 import com.techblog.entity.PostLike;
 import com.techblog.entity.User;
@@ -9,18 +11,22 @@ import com.techblog.repository.PostLikeRepository;
 import com.techblog.repository.PostRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.text.Normalizer;
-import java.util.Locale;
-import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -30,32 +36,115 @@ public class PostService {
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
     private final FirehoseService firehoseService;
+    private final PostCounterBuffer counterBuffer;
+    private final PostCache postCache;
+    private final PostBodyCache postBodyCache;
+    private final SlugAllocator slugAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TagService tagService;
+    private final TagIndex tagIndex;
+    private final TrendingService trendingService;
+    private final RelatedPostsIndex relatedPostsIndex;
+    private final ListingVersion listingVersion;
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "posts", key = "'page:' + #pageable.pageNumber")
-    public Page<PostResponse> getPublishedPosts(Pageable pageable, User currentUser) {
-        return postRepository.findByStatus(Post.Status.PUBLISHED, pageable)
-                .map(post -> toResponse(post, currentUser));
+    public Page<PostSummaryResponse> getPublishedPosts(Pageable pageable, User currentUser) {
+        Page<PostSummaryResponse> page = getAnonymousPage(pageable);
+        return new PageImpl<>(personalize(page.getContent(), currentUser), pageable, page.getTotalElements());
     }
 
-    @Transactional
-    public PostResponse getPostBySlug(String slug, User currentUser) {
-        Post post = postRepository.findBySlug(slug)
-                .orElseThrow(() -> new IllegalArgumentException("Post not found: " + slug));
-        postRepository.incrementViewCount(post.getId());
-        firehoseService.sendEvent("post_view", "{\"postId\":\"" + post.getId() + "\",\"slug\":\"" + slug + "\"}");
-        return toResponse(post, currentUser);
+    /**
+     * Newest-first published posts carrying all ({@code matchAll}) or any of
+     * {@code tags}. Matching and paging run on {@link TagIndex}; only the
+     * summaries of the page itself are loaded, through the summary cache.
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryResponse> getPublishedPostsByTags(List<String> tags, boolean matchAll,
+                                                             Pageable pageable, User currentUser) {
+        TagIndex.Slice slice = tagIndex.find(TagService.normalize(tags), matchAll,
+                pageable.getOffset(), pageable.getPageSize());
+        List<PostSummaryResponse> posts = slice.postIds().isEmpty()
+                ? List.of()
+                : postCache.getPosts(slice.postIds(), postRepository::findSummariesByIdIn);
+        return new PageImpl<>(personalize(posts, currentUser), pageable, slice.total());
+    }
+
+    /**
+     * The currently trending published posts, best first. Ranking comes from
+     * {@link TrendingService}; ids that were deleted or unpublished since are
+     * skipped, so a few extra candidates are asked for.
+     */
+    @Transactional(readOnly = true)
+    public List<PostSummaryResponse> getTrendingPosts(int size, User currentUser) {
+        List<Long> postIds = trendingService.topPostIds(size * 2);
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        List<PostSummaryResponse> trending = postCache.getPosts(postIds, postRepository::findSummariesByIdIn).stream()
+                .filter(post -> Post.Status.PUBLISHED.name().equals(post.getStatus()))
+                .limit(size)
+                .toList();
+        return personalize(trending, currentUser);
+    }
+
+    /**
+     * Posts similar to the one at {@code slug}, most similar first, from the
+     * table precomputed by {@link RelatedPostsIndex}.
+     */
+    @Transactional(readOnly = true)
+    public List<PostSummaryResponse> getRelatedPosts(String slug, int size, User currentUser) {
+        Long postId = postCache.getDetail(slug, this::loadPostId, this::loadDetail).getId();
+        List<Long> relatedIds = relatedPostsIndex.relatedPostIds(postId);
+        if (relatedIds.isEmpty()) {
+            return List.of();
+        }
+        List<PostSummaryResponse> related = postCache.getPosts(relatedIds.subList(0, Math.min(size, relatedIds.size())),
+                        postRepository::findSummariesByIdIn).stream()
+                .filter(post -> Post.Status.PUBLISHED.name().equals(post.getStatus()))
+                .toList();
+        return personalize(related, currentUser);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PostSummaryResponse> getPublishedFeed(String cursor, int size, User currentUser) {
+        Limit limit = Limit.of(size + 1);
+        List<PostSummaryResponse> posts = cursor == null || cursor.isBlank()
+                ? postRepository.findFeed(Post.Status.PUBLISHED, limit)
+                : findFeedAfter(FeedCursor.decode(cursor), limit);
+
+        boolean hasMore = posts.size() > size;
+        if (hasMore) {
+            posts = posts.subList(0, size);
+        }
+        markLiked(posts, currentUser);
+        String nextCursor = hasMore ? FeedCursor.after(posts.get(posts.size() - 1)).encode() : null;
+        return new CursorPageResponse<>(posts, nextCursor, hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    public PostView viewPost(String slug, User currentUser) {
+        PostResponse detail = postCache.getDetail(slug, this::loadPostId, this::loadDetail);
+        Long postId = detail.getId();
+        counterBuffer.recordView(postId);
+        trendingService.recordView(postId);
+        firehoseService.sendEvent("post_view", "{\"postId\":\"" + postId + "\",\"slug\":\"" + slug + "\"}");
+
+        int viewCount = detail.getViewCount();
+        int likeCount = detail.getLikeCount();
+        for (PostSummaryResponse counters : postCache.getPosts(List.of(postId), postRepository::findSummariesByIdIn)) {
+            viewCount = counters.getViewCount();
+            likeCount = counters.getLikeCount();
+        }
+        boolean liked = currentUser != null && postLikeRepository.existsByPostIdAndUserId(postId, currentUser.getId());
+        return new PostView(detail,
+                (int) (viewCount + counterBuffer.pendingViews(postId)),
+                (int) Math.max(0, likeCount + counterBuffer.pendingLikes(postId)),
+                liked);
     }
 
     @Transactional
-    @CacheEvict(value = "posts", allEntries = true)
     public PostResponse createPost(PostRequest request, User author) {
-        String slug = generateSlug(request.getTitle());
-        String baseSlug = slug;
-        int counter = 1;
-        while (postRepository.findBySlug(slug).isPresent()) {
-            slug = baseSlug + "-" + counter++;
-        }
+        String slug = slugAllocator.allocate(request.getTitle());
 
         Post.Status status = Post.Status.DRAFT;
         if ("PUBLISHED".equalsIgnoreCase(request.getStatus())) {
@@ -71,18 +160,22 @@ public class PostService {
                 .author(author)
                 .status(status)
                 .tags(request.getTags())
+                .tagSet(tagService.resolve(request.getTags()))
                 .viewCount(0)
                 .likeCount(0)
                 .build();
 
         Post saved = postRepository.save(post);
+        if (status == Post.Status.PUBLISHED) {
+            afterCommit(postCache::evictFeed);
+        }
+        eventPublisher.publishEvent(new PostChangedEvent(saved, false));
         firehoseService.sendEvent("post_create",
                 "{\"postId\":\"" + saved.getId() + "\",\"authorId\":\"" + author.getId() + "\"}");
-        return toResponse(saved, author);
+        return toResponse(saved, false);
     }
 
     @Transactional
-    @CacheEvict(value = "posts", allEntries = true)
     public PostResponse updatePost(Long postId, PostRequest request, User currentUser) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
@@ -90,21 +183,34 @@ public class PostService {
         if (!post.getAuthor().getId().equals(currentUser.getId()) && currentUser.getRole() != User.Role.ADMIN) {
             throw new AccessDeniedException("Not authorized to update this post");
         }
+        Post.Status previousStatus = post.getStatus();
 
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
         post.setExcerpt(request.getExcerpt());
         post.setCoverImageUrl(request.getCoverImageUrl());
         post.setTags(request.getTags());
+        post.setTagSet(tagService.resolve(request.getTags()));
         if (request.getStatus() != null) {
             post.setStatus(Post.Status.valueOf(request.getStatus().toUpperCase()));
         }
 
-        return toResponse(postRepository.save(post), currentUser);
+        boolean feedMembershipChanged = previousStatus != post.getStatus()
+                && (previousStatus == Post.Status.PUBLISHED || post.getStatus() == Post.Status.PUBLISHED);
+        afterCommit(() -> {
+            postCache.evictPost(postId);
+            postCache.evictDetail(postId, post.getSlug());
+            postBodyCache.evict(postId);
+            if (feedMembershipChanged) {
+                postCache.evictFeed();
+            }
+        });
+        Post saved = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(saved, false));
+        return toResponse(saved, currentUser);
     }
 
     @Transactional
-    @CacheEvict(value = "posts", allEntries = true)
     public void deletePost(Long postId, User currentUser) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
@@ -113,29 +219,111 @@ public class PostService {
             throw new AccessDeniedException("Not authorized to delete this post");
         }
 
+        boolean wasPublished = post.getStatus() == Post.Status.PUBLISHED;
+        String slug = post.getSlug();
         postRepository.delete(post);
+        eventPublisher.publishEvent(new PostChangedEvent(post, true));
+        afterCommit(() -> {
+            postCache.evictPost(postId);
+            postCache.evictDetail(postId, slug);
+            postBodyCache.evict(postId);
+            if (wasPublished) {
+                postCache.evictFeed();
+            }
+        });
     }
 
     @Transactional
-    @CacheEvict(value = "posts", allEntries = true)
     public boolean toggleLike(Long postId, User user) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new IllegalArgumentException("Post not found"));
-
-        Optional<PostLike> existingLike = postLikeRepository.findByPostIdAndUserId(postId, user.getId());
-        if (existingLike.isPresent()) {
-            postLikeRepository.delete(existingLike.get());
-            postRepository.decrementLikeCount(postId);
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, user.getId()) > 0) {
+            afterCommit(() -> {
+                counterBuffer.recordLike(postId, -1);
+                trendingService.recordLike(postId, -1);
+                listingVersion.likesChanged(user.getId());
+            });
             return false;
-        } else {
-            PostLike like = PostLike.builder().post(post).user(user).build();
-            postLikeRepository.save(like);
-            postRepository.incrementLikeCount(postId);
-            return true;
         }
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        PostLike like = PostLike.builder().post(postRepository.getReferenceById(postId)).user(user).build();
+        postLikeRepository.save(like);
+        afterCommit(() -> {
+            counterBuffer.recordLike(postId, 1);
+            trendingService.recordLike(postId, 1);
+            listingVersion.likesChanged(user.getId());
+        });
+        return true;
+    }
+
+    @EventListener
+    public void onCountersFlushed(PostCountersFlushedEvent event) {
+        event.viewedPostIds().forEach(postCache::evictPost);
+        event.likedPostIds().forEach(postCache::evictPost);
+    }
+
+    /**
+     * The page as an anonymous visitor sees it. Served from the shared feed cache,
+     * keyed by page, size and sort, so the returned summaries must not be mutated;
+     * per-user state is applied by {@link #personalize}.
+     */
+    private Page<PostSummaryResponse> getAnonymousPage(Pageable pageable) {
+        AtomicReference<List<PostSummaryResponse>> loadedPosts = new AtomicReference<>();
+        PostCache.FeedPage feedPage = postCache.getFeedPage(PostCache.feedKey(pageable), () -> {
+            Page<PostSummaryResponse> loaded = postRepository.findSummariesByStatus(Post.Status.PUBLISHED, pageable);
+            postCache.putPosts(loaded.getContent());
+            loadedPosts.set(loaded.getContent());
+            return new PostCache.FeedPage(
+                    loaded.getContent().stream().map(PostSummaryResponse::getId).toList(), loaded.getTotalElements());
+        });
+
+        List<PostSummaryResponse> posts = loadedPosts.get() != null
+                ? loadedPosts.get()
+                : postCache.getPosts(feedPage.postIds(), postRepository::findSummariesByIdIn);
+        return new PageImpl<>(posts, pageable, feedPage.total());
+    }
+
+    private Long loadPostId(String slug) {
+        return postRepository.findIdBySlug(slug)
+                .orElseThrow(() -> new IllegalArgumentException("Post not found: " + slug));
+    }
+
+    private PostResponse loadDetail(String slug) {
+        Post post = postRepository.findBySlug(slug)
+                .orElseThrow(() -> new IllegalArgumentException("Post not found: " + slug));
+        return toResponse(post, false);
+    }
+
+    private List<PostSummaryResponse> findFeedAfter(FeedCursor cursor, Limit limit) {
+        return postRepository.findFeedAfter(Post.Status.PUBLISHED, cursor.createdAt(), cursor.id(), limit);
+    }
+
+    private List<PostSummaryResponse> personalize(List<PostSummaryResponse> cached, User currentUser) {
+        List<PostSummaryResponse> posts = cached.stream().map(post -> {
+            PostSummaryResponse copy = new PostSummaryResponse();
+            BeanUtils.copyProperties(post, copy);
+            return copy;
+        }).toList();
+        markLiked(posts, currentUser);
+        return posts;
+    }
+
+    private void markLiked(List<PostSummaryResponse> posts, User currentUser) {
+        if (currentUser == null || posts.isEmpty()) {
+            return;
+        }
+        List<Long> postIds = posts.stream().map(PostSummaryResponse::getId).toList();
+        Set<Long> likedPostIds = postLikeRepository.findLikedPostIds(currentUser.getId(), postIds);
+        posts.forEach(post -> post.setLikedByCurrentUser(likedPostIds.contains(post.getId())));
     }
 
     private PostResponse toResponse(Post post, User currentUser) {
+        boolean liked = currentUser != null
+                && postLikeRepository.existsByPostIdAndUserId(post.getId(), currentUser.getId());
+        return toResponse(post, liked);
+    }
+
+    private PostResponse toResponse(Post post, boolean likedByCurrentUser) {
         PostResponse response = new PostResponse();
         response.setId(post.getId());
         response.setTitle(post.getTitle());
@@ -151,22 +339,16 @@ public class PostService {
         response.setTags(post.getTags());
         response.setCreatedAt(post.getCreatedAt());
         response.setUpdatedAt(post.getUpdatedAt());
-        if (currentUser != null) {
-            response.setLikedByCurrentUser(
-                    postLikeRepository.existsByPostIdAndUserId(post.getId(), currentUser.getId())
-            );
-        }
+        response.setLikedByCurrentUser(likedByCurrentUser);
         return response;
     }
 
-    private String generateSlug(String title) {
-        String normalized = Normalizer.normalize(title, Normalizer.Form.NFD);
-        Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
-        return pattern.matcher(normalized)
-                .replaceAll("")
-                .toLowerCase(Locale.ENGLISH)
-                .replaceAll("[^a-z0-9\\s-]", "")
-                .replaceAll("[\\s-]+", "-")
-                .replaceAll("^-|-$", "");
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,11 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostResponse;
+
+/**
+ * One read of an article: the shared, user-independent {@code detail} (served
+ * from cache, must not be mutated) plus the live counters and per-user flag
+ * that are overlaid on it for this request.
+ */
+public record PostView(PostResponse detail, int viewCount, int likeCount, boolean likedByCurrentUser) {
+}
@@ -0,0 +1,250 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.repository.PostRepository;
+import com.techblog.search.SearchDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Precomputed "related posts" table. Each published post gets a MinHash
+ * signature; LSH buckets (32 bands of 4 rows, so pairs above roughly 0.4
+ * Jaccard similarity almost always share a bucket) supply candidates, and the
+ * best {@link #NEIGHBOURS} are stored per post. Reads are a single map lookup.
+ *
+ * <p>Built once the application is ready and maintained from
+ * {@link PostChangedEvent}s: a changed post is re-bucketed and re-ranked, it
+ * is offered to the neighbour lists of its new candidates, and lists that
+ * referenced its previous version are recomputed. Changes made through other
+ * instances are only picked up by the periodic rebuild, which fills a fresh
+ * table off to the side and replays any events that arrived meanwhile before
+ * swapping it in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelatedPostsIndex {
+
+    public static final int NEIGHBOURS = 10;
+    static final int BANDS = 32;
+    static final int ROWS = MinHasher.SIGNATURE_LENGTH / BANDS;
+    static final double MIN_SIMILARITY = 0.1;
+    private static final int MAX_CANDIDATES = 1000;
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MinHasher minHasher = new MinHasher();
+
+    private record Neighbour(long postId, double similarity) {
+    }
+
+    private static final Comparator<Neighbour> BEST_FIRST = Comparator.comparingDouble(Neighbour::similarity)
+            .reversed()
+            .thenComparing(Comparator.comparingLong(Neighbour::postId).reversed());
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Table table = new Table();
+    private List<PostChangedEvent> changedDuringRebuild;
+
+    public List<Long> relatedPostIds(Long postId) {
+        return table.related.getOrDefault(postId, List.of());
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${posts.related.rebuild-interval-ms:600000}",
+            fixedDelayString = "${posts.related.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Table fresh = new Table();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<SearchDocument> documents = postRepository.streamSearchDocuments(Post.Status.PUBLISHED)) {
+                    documents.forEach(document -> fresh.insert(document.id(),
+                            signature(document.title(), document.content(), document.tags())));
+                }
+            });
+            fresh.signatures.keySet().forEach(fresh::recompute);
+            synchronized (this) {
+                changedDuringRebuild.forEach(event -> apply(fresh, event));
+                table = fresh;
+            }
+            log.info("Related posts computed for {} posts in {} ms", fresh.signatures.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Related posts rebuild failed, keeping the current table", e);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        apply(table, event);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(event);
+        }
+    }
+
+    private void apply(Table target, PostChangedEvent event) {
+        Post post = event.post();
+        Long postId = post.getId();
+
+        Set<Long> stale = new HashSet<>();
+        long[] previous = target.signatures.remove(postId);
+        if (previous != null) {
+            for (Long candidate : target.candidates(postId, previous)) {
+                if (target.lists(candidate, postId)) {
+                    stale.add(candidate);
+                }
+            }
+            forEachBand(previous, bucket -> {
+                Set<Long> members = target.buckets.get(bucket);
+                members.remove(postId);
+                if (members.isEmpty()) {
+                    target.buckets.remove(bucket);
+                }
+            });
+            target.neighbours.remove(postId);
+            target.related.remove(postId);
+        }
+
+        if (!event.deleted() && post.getStatus() == Post.Status.PUBLISHED) {
+            long[] signature = signature(post.getTitle(), post.getContent(), post.getTags());
+            target.insert(postId, signature);
+            target.recompute(postId);
+            for (Long candidate : target.candidates(postId, signature)) {
+                if (!stale.contains(candidate)) {
+                    target.offer(candidate,
+                            new Neighbour(postId, MinHasher.similarity(signature, target.signatures.get(candidate))));
+                }
+            }
+        }
+        stale.forEach(target::recompute);
+    }
+
+    private long[] signature(String title, String content, String tags) {
+        return minHasher.signature(title, content, TagService.normalize(tags));
+    }
+
+    /** Signatures, buckets and neighbour lists; written under the index's monitor or before being published. */
+    private static final class Table {
+
+        final Map<Long, long[]> signatures = new HashMap<>();
+        final Map<Long, Set<Long>> buckets = new HashMap<>();
+        final Map<Long, List<Neighbour>> neighbours = new HashMap<>();
+
+        /** Read side: post id -> related post ids, best first. Entries are replaced, never mutated. */
+        final Map<Long, List<Long>> related = new ConcurrentHashMap<>();
+
+        void insert(Long postId, long[] signature) {
+            signatures.put(postId, signature);
+            forEachBand(signature, bucket -> buckets.computeIfAbsent(bucket, key -> new HashSet<>()).add(postId));
+        }
+
+        void recompute(Long postId) {
+            long[] signature = signatures.get(postId);
+            List<Neighbour> ranked = new ArrayList<>();
+            for (Long candidate : candidates(postId, signature)) {
+                double similarity = MinHasher.similarity(signature, signatures.get(candidate));
+                if (similarity >= MIN_SIMILARITY) {
+                    ranked.add(new Neighbour(candidate, similarity));
+                }
+            }
+            ranked.sort(BEST_FIRST);
+            publish(postId, ranked.size() > NEIGHBOURS ? new ArrayList<>(ranked.subList(0, NEIGHBOURS)) : ranked);
+        }
+
+        void offer(Long postId, Neighbour neighbour) {
+            if (neighbour.similarity() < MIN_SIMILARITY) {
+                return;
+            }
+            List<Neighbour> current = neighbours.getOrDefault(postId, List.of());
+            if (current.size() >= NEIGHBOURS && BEST_FIRST.compare(neighbour, current.get(current.size() - 1)) > 0) {
+                return;
+            }
+            List<Neighbour> updated = new ArrayList<>(current);
+            updated.add(neighbour);
+            updated.sort(BEST_FIRST);
+            if (updated.size() > NEIGHBOURS) {
+                updated.remove(updated.size() - 1);
+            }
+            publish(postId, updated);
+        }
+
+        private void publish(Long postId, List<Neighbour> list) {
+            neighbours.put(postId, list);
+            related.put(postId, list.stream().map(Neighbour::postId).toList());
+        }
+
+        boolean lists(Long postId, Long neighbourId) {
+            for (Neighbour neighbour : neighbours.getOrDefault(postId, List.of())) {
+                if (neighbour.postId() == neighbourId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Set<Long> candidates(Long postId, long[] signature) {
+            Set<Long> candidates = new HashSet<>();
+            forEachBand(signature, bucket -> {
+                Set<Long> members = buckets.get(bucket);
+                if (members == null) {
+                    return;
+                }
+                for (Long member : members) {
+                    if (candidates.size() >= MAX_CANDIDATES) {
+                        return;
+                    }
+                    if (!member.equals(postId)) {
+                        candidates.add(member);
+                    }
+                }
+            });
+            return candidates;
+        }
+    }
+
+    private static void forEachBand(long[] signature, LongConsumer consumer) {
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = MinHasher.mix(key * 31 + signature[band * ROWS + row]);
+            }
+            consumer.accept(key);
+        }
+    }
+}
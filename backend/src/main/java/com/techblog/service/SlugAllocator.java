@@ -0,0 +1,86 @@
+package com.techblog.service;
+
+import com.techblog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Turns post titles into URL slugs and picks a free one with a single prefix
+ * query instead of probing {@code -1}, {@code -2}, ... one lookup at a time.
+ *
+ * <p>Two concurrent creates can still pick the same slug; the unique
+ * constraint on {@code posts.slug} rejects the second one and the caller
+ * sees a 409 it can retry. Retrying here is not an option because the
+ * failed insert has already marked the surrounding transaction rollback-only.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlugAllocator {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final String FALLBACK_SLUG = "post";
+
+    private final PostRepository postRepository;
+
+    public String allocate(String title) {
+        String base = slugify(title);
+        // Slugs only contain [a-z0-9-], so the LIKE pattern needs no escaping.
+        List<String> taken = postRepository.findSlugsByPrefix(base);
+        if (!taken.contains(base)) {
+            return base;
+        }
+        long max = 0;
+        int suffixStart = base.length() + 1;
+        for (String slug : taken) {
+            if (slug.length() > suffixStart) {
+                max = Math.max(max, numericSuffix(slug, suffixStart));
+            }
+        }
+        return base + "-" + (max + 1);
+    }
+
+    /**
+     * Strips accents, lower-cases ASCII letters, keeps digits and collapses
+     * every run of whitespace or hyphens into one hyphen, in a single pass.
+     */
+    static String slugify(String title) {
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(title, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder slug = new StringBuilder(stripped.length());
+        boolean pendingHyphen = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (pendingHyphen && slug.length() > 0) {
+                    slug.append('-');
+                }
+                pendingHyphen = false;
+                slug.append(c);
+            } else if (c == '-' || Character.isWhitespace(c)) {
+                pendingHyphen = true;
+            }
+        }
+        return slug.length() == 0 ? FALLBACK_SLUG : slug.toString();
+    }
+
+    private static long numericSuffix(String slug, int start) {
+        if (slug.length() - start > 18) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = start; i < slug.length(); i++) {
+            char c = slug.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,164 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.entity.Tag;
+import com.techblog.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Published post ids per tag as compressed bitmaps, so tag pages and AND/OR
+ * tag filters are answered from memory. Post ids are assigned in creation
+ * order, so walking a bitmap from the highest id gives newest-first pages
+ * without touching the database.
+ *
+ * <p>Built once the application is ready and kept current from
+ * {@link PostChangedEvent}s after commit. Changes made through other instances
+ * are only picked up by the periodic rebuild, which loads a fresh index off to
+ * the side and replays the events that arrived meanwhile before swapping it
+ * in. Post ids must fit in an int.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TagIndex {
+
+    private final TagRepository tagRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private Map<String, RoaringBitmap> postsByTag = new HashMap<>();
+    private List<PostChangedEvent> changedDuringRebuild;
+
+    public record Slice(List<Long> postIds, long total) {
+    }
+
+    /**
+     * Newest-first ids of published posts carrying all (or any) of {@code tags},
+     * skipping {@code offset} and returning at most {@code limit}.
+     */
+    public Slice find(Collection<String> tags, boolean matchAll, long offset, int limit) {
+        RoaringBitmap matches;
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(tags.size());
+            for (String tag : tags) {
+                RoaringBitmap bitmap = postsByTag.get(tag);
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                } else if (matchAll) {
+                    return new Slice(List.of(), 0);
+                }
+            }
+            if (bitmaps.isEmpty()) {
+                return new Slice(List.of(), 0);
+            }
+            matches = matchAll
+                    ? FastAggregation.and(bitmaps.iterator())
+                    : FastAggregation.or(bitmaps.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long total = matches.getLongCardinality();
+        List<Long> page = new ArrayList<>(limit);
+        IntIterator newestFirst = matches.getReverseIntIterator();
+        for (long skipped = 0; skipped < offset && newestFirst.hasNext(); skipped++) {
+            newestFirst.next();
+        }
+        while (page.size() < limit && newestFirst.hasNext()) {
+            page.add((long) newestFirst.next());
+        }
+        return new Slice(page, total);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${posts.tags.rebuild-interval-ms:600000}",
+            fixedDelayString = "${posts.tags.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<String, RoaringBitmap> fresh = new HashMap<>();
+            for (Object[] row : tagRepository.findPostTagNames(Post.Status.PUBLISHED)) {
+                fresh.computeIfAbsent((String) row[1], tag -> new RoaringBitmap())
+                        .add(Math.toIntExact((Long) row[0]));
+            }
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild.forEach(event -> apply(fresh, event));
+                fresh.values().forEach(RoaringBitmap::runOptimize);
+                postsByTag = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Tag index rebuilt with {} tags", fresh.size());
+        } catch (RuntimeException e) {
+            log.error("Tag index rebuild failed, keeping the current index", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(postsByTag, event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<String, RoaringBitmap> index, PostChangedEvent event) {
+        Post post = event.post();
+        int postId = Math.toIntExact(post.getId());
+        index.values().removeIf(bitmap -> {
+            bitmap.remove(postId);
+            return bitmap.isEmpty();
+        });
+        if (!event.deleted() && post.getStatus() == Post.Status.PUBLISHED) {
+            for (Tag tag : post.getTagSet()) {
+                index.computeIfAbsent(tag.getName(), name -> new RoaringBitmap()).add(postId);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.techblog.service;
+
+import com.techblog.entity.Tag;
+import com.techblog.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps the free-form comma-separated {@code tags} string of a post onto rows
+ * of the normalised {@code tags} table, creating tags on first use. Missing
+ * tags are inserted with {@code ON CONFLICT DO NOTHING} and read back, so two
+ * posts introducing the same tag at once both resolve to the one row instead
+ * of one failing on the unique name.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagService {
+
+    static final int MAX_TAG_LENGTH = 100;
+
+    private final TagRepository tagRepository;
+
+    public Set<Tag> resolve(String tags) {
+        Set<String> names = normalize(tags);
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+        Set<Tag> resolved = new HashSet<>(tagRepository.findByNameIn(names));
+        resolved.forEach(tag -> names.remove(tag.getName()));
+        if (!names.isEmpty()) {
+            names.forEach(tagRepository::insertIfAbsent);
+            resolved.addAll(tagRepository.findByNameIn(names));
+        }
+        return resolved;
+    }
+
+    /** Lower-cased, trimmed, de-duplicated tag names, matching the V6 backfill. */
+    public static Set<String> normalize(String tags) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tags == null) {
+            return names;
+        }
+        for (String raw : tags.split(",")) {
+            String name = raw.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty()) {
+                names.add(name.length() > MAX_TAG_LENGTH ? name.substring(0, MAX_TAG_LENGTH) : name);
+            }
+        }
+        return names;
+    }
+
+    public static Set<String> normalize(List<String> tags) {
+        return tags == null ? new LinkedHashSet<>() : normalize(String.join(",", tags));
+    }
+}
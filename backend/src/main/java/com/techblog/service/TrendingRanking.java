@@ -0,0 +1,112 @@
+package com.techblog.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Per-post trending scores plus an incrementally maintained top-K. Scores are
+ * forward-decayed: each signal is stored pre-multiplied by
+ * {@code e^(λ(t - landmark))}, so the ranking between posts never changes just
+ * because time passes and nothing needs re-sorting between signals. Dividing
+ * by {@code e^(λ(now - landmark))} gives the conventional decayed score.
+ *
+ * <p>Not thread-safe; {@link TrendingService} serialises access.
+ */
+final class TrendingRanking {
+
+    private record Ranked(long postId, double score) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(other.postId, postId);
+        }
+    }
+
+    private final int capacity;
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final TreeSet<Ranked> top = new TreeSet<>();
+    /** Set when a top-K member lost score, so an outsider may now belong in the top-K. */
+    private boolean stale;
+
+    TrendingRanking(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(long postId, double delta) {
+        Double previous = scores.get(postId);
+        double updated = Math.max(0, (previous == null ? 0 : previous) + delta);
+        if (previous != null && top.remove(new Ranked(postId, previous)) && delta < 0) {
+            stale = true;
+        }
+        if (updated == 0) {
+            scores.remove(postId);
+            return;
+        }
+        scores.put(postId, updated);
+        offer(new Ranked(postId, updated));
+    }
+
+    void remove(long postId) {
+        Double previous = scores.remove(postId);
+        if (previous != null && top.remove(new Ranked(postId, previous))) {
+            stale = true;
+        }
+    }
+
+    /** Multiplies every score by {@code factor} and drops those that fall below {@code minimum}. */
+    void scale(double factor, double minimum) {
+        scores.replaceAll((postId, score) -> score * factor);
+        scores.values().removeIf(score -> score < minimum);
+        rebuildTop();
+    }
+
+    void replaceAll(Map<Long, Double> replacement) {
+        scores.clear();
+        replacement.forEach((postId, score) -> {
+            if (score > 0) {
+                scores.put(postId, score);
+            }
+        });
+        rebuildTop();
+    }
+
+    double score(long postId) {
+        return scores.getOrDefault(postId, 0.0);
+    }
+
+    List<Long> top(int limit) {
+        if (stale) {
+            rebuildTop();
+        }
+        List<Long> postIds = new ArrayList<>(Math.min(limit, top.size()));
+        for (Ranked ranked : top) {
+            if (postIds.size() == limit) {
+                break;
+            }
+            postIds.add(ranked.postId());
+        }
+        return postIds;
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    private void offer(Ranked ranked) {
+        if (top.size() < capacity) {
+            top.add(ranked);
+        } else if (ranked.compareTo(top.last()) < 0) {
+            top.pollLast();
+            top.add(ranked);
+        }
+    }
+
+    private void rebuildTop() {
+        top.clear();
+        scores.forEach((postId, score) -> offer(new Ranked(postId, score)));
+        stale = false;
+    }
+}
@@ -0,0 +1,214 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Ranks posts by exponentially time-decayed engagement (views and likes).
+ *
+ * <p>Signals are buffered lock-free and folded into a {@link TrendingRanking}
+ * once per tick, stamped with the tick time. Scores are forward-decayed
+ * against a landmark aligned to the start of the UTC week, so every node
+ * derives the same landmark and their scores can be summed; at each week
+ * boundary scores are rebased onto the new landmark to keep them finite.
+ *
+ * <p>When checkpointing is enabled each node adds its local deltas to a Redis
+ * hash per landmark with {@code HINCRBYFLOAT}, then reloads the merged hash, so
+ * nodes converge on the same ranking and a restart resumes from it. Deltas
+ * from a failed checkpoint are retried on the next one.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    static final String KEY_PREFIX = "trending:scores:";
+    private static final long WEEK_MILLIS = Duration.ofDays(7).toMillis();
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double LIKE_WEIGHT = 5.0;
+    /** Decayed score below which a post is forgotten when scores are rebased. */
+    private static final double MINIMUM_SCORE = 0.01;
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean checkpointEnabled;
+    private final double lambda;
+
+    private final Map<Long, DoubleAdder> pending = new ConcurrentHashMap<>();
+    private final TrendingRanking ranking;
+    private long landmark;
+    private Map<Long, Double> uncheckpointed = new HashMap<>();
+    private Set<Long> removedSinceCheckpoint = new HashSet<>();
+
+    public TrendingService(StringRedisTemplate redisTemplate,
+                           @Value("${posts.trending.half-life:6h}") Duration halfLife,
+                           @Value("${posts.trending.capacity:100}") int capacity,
+                           @Value("${posts.trending.checkpoint.enabled:true}") boolean checkpointEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.checkpointEnabled = checkpointEnabled;
+        this.lambda = Math.log(2) / halfLife.toMillis();
+        this.ranking = new TrendingRanking(capacity);
+        this.landmark = landmarkFor(System.currentTimeMillis());
+    }
+
+    public void recordView(Long postId) {
+        record(postId, VIEW_WEIGHT);
+    }
+
+    public void recordLike(Long postId, int delta) {
+        record(postId, LIKE_WEIGHT * delta);
+    }
+
+    public synchronized List<Long> topPostIds(int limit) {
+        return ranking.top(limit);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.trending.tick-interval-ms:1000}")
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    synchronized void tick(long now) {
+        long currentLandmark = landmarkFor(now);
+        if (currentLandmark != landmark) {
+            double factor = Math.exp(-lambda * (currentLandmark - landmark));
+            ranking.scale(factor, MINIMUM_SCORE);
+            uncheckpointed.replaceAll((postId, delta) -> delta * factor);
+            landmark = currentLandmark;
+        }
+        double forward = Math.exp(lambda * (now - landmark));
+        pending.forEach((postId, adder) -> {
+            double weight = adder.sumThenReset();
+            if (weight == 0) {
+                pending.remove(postId, adder);
+                return;
+            }
+            ranking.add(postId, weight * forward);
+            if (checkpointEnabled) {
+                uncheckpointed.merge(postId, weight * forward, Double::sum);
+            }
+        });
+    }
+
+    /**
+     * Decayed score of the post as of {@code now}, for diagnostics and tests.
+     */
+    synchronized double score(Long postId, long now) {
+        return ranking.score(postId) / Math.exp(lambda * (now - landmark));
+    }
+
+    @Scheduled(fixedDelayString = "${posts.trending.checkpoint.interval-ms:30000}")
+    public void checkpoint() {
+        if (!checkpointEnabled) {
+            return;
+        }
+        Map<Long, Double> deltas;
+        Set<Long> removed;
+        long checkpointLandmark;
+        synchronized (this) {
+            deltas = uncheckpointed;
+            removed = removedSinceCheckpoint;
+            checkpointLandmark = landmark;
+            uncheckpointed = new HashMap<>();
+            removedSinceCheckpoint = new HashSet<>();
+        }
+        String key = KEY_PREFIX + checkpointLandmark;
+        Map<Long, Double> merged = new HashMap<>();
+        try {
+            migratePreviousWeek(checkpointLandmark);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                deltas.forEach((postId, delta) -> redis.hIncrBy(key, postId.toString(), delta));
+                if (!removed.isEmpty()) {
+                    redis.hDel(key, removed.stream().map(String::valueOf).toArray(String[]::new));
+                }
+                redis.expire(key, 2 * WEEK_MILLIS / 1000);
+                return null;
+            });
+            redisTemplate.<String, String>opsForHash().entries(key)
+                    .forEach((postId, score) -> merged.put(Long.valueOf(postId), Double.valueOf(score)));
+        } catch (DataAccessException e) {
+            log.warn("Failed to checkpoint trending scores for {} posts, retrying next time", deltas.size(), e);
+            synchronized (this) {
+                double factor = Math.exp(-lambda * (landmark - checkpointLandmark));
+                deltas.forEach((postId, delta) -> uncheckpointed.merge(postId, delta * factor, Double::sum));
+                removedSinceCheckpoint.addAll(removed);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (landmark != checkpointLandmark) {
+                return;
+            }
+            // Signals folded in while Redis was being updated are not in the hash yet.
+            uncheckpointed.forEach((postId, delta) -> merged.merge(postId, delta, Double::sum));
+            removedSinceCheckpoint.forEach(merged::remove);
+            ranking.replaceAll(merged);
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        Post post = event.post();
+        if (event.deleted() || post.getStatus() != Post.Status.PUBLISHED) {
+            ranking.remove(post.getId());
+            uncheckpointed.remove(post.getId());
+            if (checkpointEnabled) {
+                removedSinceCheckpoint.add(post.getId());
+            }
+        }
+    }
+
+    /**
+     * Carries last week's hash over to the new landmark, once across all nodes:
+     * the first node to claim the marker adds the rebased scores, which
+     * composes with any increments other nodes already made to the new hash.
+     */
+    private void migratePreviousWeek(long currentLandmark) {
+        String key = KEY_PREFIX + currentLandmark;
+        Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(key + ":migrated", "1", Duration.ofMillis(2 * WEEK_MILLIS));
+        if (!Boolean.TRUE.equals(claimed)) {
+            return;
+        }
+        double factor = Math.exp(-lambda * WEEK_MILLIS);
+        Map<String, String> previous = redisTemplate.<String, String>opsForHash()
+                .entries(KEY_PREFIX + (currentLandmark - WEEK_MILLIS));
+        if (previous.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            previous.forEach((postId, score) -> {
+                double rebased = Double.parseDouble(score) * factor;
+                if (rebased >= MINIMUM_SCORE) {
+                    redis.hIncrBy(key, postId, rebased);
+                }
+            });
+            return null;
+        });
+    }
+
+    private void record(Long postId, double weight) {
+        pending.computeIfAbsent(postId, id -> new DoubleAdder()).add(weight);
+    }
+
+    private static long landmarkFor(long epochMillis) {
+        return Math.floorDiv(epochMillis, WEEK_MILLIS) * WEEK_MILLIS;
+    }
+}
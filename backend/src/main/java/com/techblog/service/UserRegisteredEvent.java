@@ -0,0 +1,7 @@
+package com.techblog.service;
+
+/**
+ * Published by {@link AuthService} after a new account has been saved.
+ */
+public record UserRegisteredEvent(Long userId, String username) {
+}
@@ -0,0 +1 @@
+CREATE INDEX idx_posts_status_created_at_id ON posts(status, created_at DESC, id DESC);
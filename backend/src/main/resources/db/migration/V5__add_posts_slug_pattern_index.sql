@@ -0,0 +1,2 @@
+-- Lets the slug allocator's "slug LIKE 'base-%'" lookup use an index regardless of collation
+CREATE INDEX idx_posts_slug_pattern ON posts(slug varchar_pattern_ops);
@@ -0,0 +1,26 @@
+CREATE TABLE tags (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) UNIQUE NOT NULL
+);
+
+CREATE TABLE post_tags (
+    post_id BIGINT NOT NULL REFERENCES posts(id) ON DELETE CASCADE,
+    tag_id BIGINT NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+    PRIMARY KEY (post_id, tag_id)
+);
+
+CREATE INDEX idx_post_tags_tag ON post_tags(tag_id);
+
+-- Backfill from the comma-separated posts.tags column, normalised the same way TagService does
+INSERT INTO tags (name)
+SELECT DISTINCT LEFT(LOWER(TRIM(t.name)), 100)
+FROM posts p
+CROSS JOIN LATERAL regexp_split_to_table(p.tags, ',') AS t(name)
+WHERE TRIM(t.name) <> '';
+
+INSERT INTO post_tags (post_id, tag_id)
+SELECT DISTINCT p.id, tg.id
+FROM posts p
+CROSS JOIN LATERAL regexp_split_to_table(p.tags, ',') AS t(name)
+JOIN tags tg ON tg.name = LEFT(LOWER(TRIM(t.name)), 100)
+WHERE TRIM(t.name) <> '';
@@ -0,0 +1,166 @@
+package com.techblog.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheLoaderTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("test");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        SingleFlightCacheLoader loader = loader(0.0, Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> loader.get(cache, "k", String.class, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        awaitWaiters(loader);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("k", String.class)).isEqualTo("value");
+        assertThat(inFlight(loader)).isEmpty();
+    }
+
+    @Test
+    void loaderFailureReachesEveryWaiterAndIsNotCached() throws Exception {
+        SingleFlightCacheLoader loader = loader(0.0, Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> loader.get(cache, "k", String.class, () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        awaitWaiters(loader);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database down");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("k")).isNull();
+        assertThat(inFlight(loader)).isEmpty();
+    }
+
+    @Test
+    void waitersGiveUpOnAStuckLoadAndLoadDirectly() throws Exception {
+        SingleFlightCacheLoader loader = loader(0.0, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stuck = callers.submit(() -> loader.get(cache, "k", String.class, () -> {
+            await(release);
+            return "slow";
+        }));
+        awaitWaiters(loader);
+
+        assertThat(loader.get(cache, "k", String.class, () -> "direct")).isEqualTo("direct");
+
+        release.countDown();
+        assertThat(stuck.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    @Test
+    void hitsNearExpiryAreRefreshedInTheBackground() {
+        SingleFlightCacheLoader loader = loader(Double.MAX_VALUE, Duration.ofSeconds(10));
+        loader.get(cache, "k", String.class, () -> "v1");
+
+        assertThat(loader.get(cache, "k", String.class, () -> "v2")).isEqualTo("v1");
+
+        assertThat(cache.get("k", String.class)).isEqualTo("v2");
+    }
+
+    @Test
+    void loadOverlappingAnEvictionDoesNotCacheItsResult() {
+        SingleFlightCacheLoader loader = loader(0.0, Duration.ofSeconds(10));
+
+        String value = loader.get(cache, "k", String.class, () -> {
+            loader.evict(cache, "k");
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.get("k")).isNull();
+    }
+
+    @Test
+    void refreshOverlappingAClearDoesNotCacheItsResult() {
+        SingleFlightCacheLoader loader = loader(Double.MAX_VALUE, Duration.ofSeconds(10));
+        loader.get(cache, "k", String.class, () -> "v1");
+
+        loader.get(cache, "k", String.class, () -> {
+            loader.clear(cache);
+            return "stale";
+        });
+
+        assertThat(cache.get("k")).isNull();
+    }
+
+    private SingleFlightCacheLoader loader(double beta, Duration awaitTimeout) {
+        return new SingleFlightCacheLoader(new SyncTaskExecutor(), Duration.ofMinutes(10), beta, awaitTimeout);
+    }
+
+    private List<Future<String>> callConcurrently(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(call));
+        }
+        return results;
+    }
+
+    /** Waits until the first caller has started loading; the others then find its flight. */
+    private static void awaitWaiters(SingleFlightCacheLoader loader) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight(loader).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> inFlight(SingleFlightCacheLoader loader) {
+        return (Map<String, ?>) ReflectionTestUtils.getField(loader, "inFlight");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.techblog.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two nodes sharing one remote cache, with invalidation messages handed from
+ * one to the other as the Redis listener container would.
+ */
+class TwoLevelCacheManagerTest {
+
+    private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager("posts");
+    private final StringRedisTemplate redisOfA = mock(StringRedisTemplate.class);
+    private final CacheInvalidationPublisher publisherOfA = new CacheInvalidationPublisher(redisOfA);
+    private final TwoLevelCacheManager nodeA = node(publisherOfA);
+    private final TwoLevelCacheManager nodeB = node(new CacheInvalidationPublisher(mock(StringRedisTemplate.class)));
+
+    @Test
+    void peerWritesDropTheStaleL1Copy() {
+        nodeA.getCache("posts").put(1L, "v1");
+        assertThat(nodeB.getCache("posts").get(1L, String.class)).isEqualTo("v1");
+
+        nodeA.getCache("posts").put(1L, "v2");
+        nodeB.onMessage(lastMessageOfA(), null);
+
+        assertThat(nodeB.getCache("posts").get(1L, String.class)).isEqualTo("v2");
+    }
+
+    @Test
+    void peerClearDropsEveryL1Entry() {
+        nodeB.getCache("posts").put(1L, "one");
+        nodeB.getCache("posts").put(2L, "two");
+
+        nodeA.getCache("posts").clear();
+        nodeB.onMessage(lastMessageOfA(), null);
+
+        assertThat(nodeB.getCache("posts").get(1L)).isNull();
+        assertThat(nodeB.getCache("posts").get(2L)).isNull();
+    }
+
+    @Test
+    void ownMessagesAreIgnored() {
+        Cache posts = nodeA.getCache("posts");
+        posts.put(1L, "v1");
+        remote.getCache("posts").put(1L, "changed behind the near cache");
+
+        nodeA.onMessage(lastMessageOfA(), null);
+
+        assertThat(posts.get(1L, String.class)).isEqualTo("v1");
+    }
+
+    @Test
+    void malformedAndUnknownMessagesAreIgnored() {
+        Cache posts = nodeB.getCache("posts");
+        posts.put(1L, "v1");
+        remote.getCache("posts").clear();
+
+        nodeB.onMessage(message("garbage"), null);
+        nodeB.onMessage(message("other-node|unknownCache|1"), null);
+
+        assertThat(posts.get(1L, String.class)).isEqualTo("v1");
+    }
+
+    @Test
+    void cachesAreCreatedOnceAndRequireARemoteCache() {
+        assertThat(nodeA.getCache("posts")).isSameAs(nodeA.getCache("posts"));
+        assertThatThrownBy(() -> nodeA.getCache("missing")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void publishFailuresDoNotFailTheWrite() {
+        doThrow(new IllegalStateException("redis down")).when(redisOfA).convertAndSend(anyString(), anyString());
+
+        nodeA.getCache("posts").put(1L, "v1");
+
+        assertThat(remote.getCache("posts").get(1L, String.class)).isEqualTo("v1");
+    }
+
+    private TwoLevelCacheManager node(CacheInvalidationPublisher publisher) {
+        return new TwoLevelCacheManager(remote, publisher, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    private DefaultMessage lastMessageOfA() {
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(redisOfA, atLeastOnce()).convertAndSend(eq(CacheInvalidationPublisher.CHANNEL), body.capture());
+        return message(body.getValue());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CacheInvalidationPublisher.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
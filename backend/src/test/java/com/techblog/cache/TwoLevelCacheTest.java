@@ -0,0 +1,94 @@
+package com.techblog.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class TwoLevelCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(redisTemplate);
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("posts");
+    private final TwoLevelCache cache = new TwoLevelCache(remote, Caffeine.newBuilder().maximumSize(100).build(),
+            publisher, meterRegistry);
+
+    @Test
+    void remoteHitsAreKeptInL1() {
+        remote.put(1L, "summary");
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("summary");
+        remote.evict(1L);
+        assertThat(cache.get(1L, String.class)).isEqualTo("summary");
+
+        assertThat(gets("l1", "hit")).isEqualTo(1);
+        assertThat(gets("l1", "miss")).isEqualTo(1);
+        assertThat(gets("l2", "hit")).isEqualTo(1);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void missesOnBothLevelsAreCounted() {
+        assertThat(cache.get(1L)).isNull();
+
+        assertThat(gets("l1", "miss")).isEqualTo(1);
+        assertThat(gets("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void putWritesBothLevelsAndTellsPeers() {
+        cache.put(1L, "summary");
+
+        assertThat(remote.get(1L, String.class)).isEqualTo("summary");
+        remote.evict(1L);
+        assertThat(cache.get(1L, String.class)).isEqualTo("summary");
+        verify(redisTemplate).convertAndSend(CacheInvalidationPublisher.CHANNEL, publisher.getNodeId() + "|posts|1");
+    }
+
+    @Test
+    void evictDropsBothLevelsAndTellsPeers() {
+        cache.put(1L, "summary");
+
+        cache.evict(1L);
+
+        assertThat(remote.get(1L)).isNull();
+        assertThat(cache.get(1L)).isNull();
+        verify(redisTemplate, times(2))
+                .convertAndSend(CacheInvalidationPublisher.CHANNEL, publisher.getNodeId() + "|posts|1");
+    }
+
+    @Test
+    void clearDropsBothLevelsAndTellsPeers() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.clear();
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+        verify(redisTemplate).convertAndSend(CacheInvalidationPublisher.CHANNEL, publisher.getNodeId() + "|posts|*");
+    }
+
+    @Test
+    void valueLoaderResultsAreCached() {
+        assertThat(cache.get(1L, () -> "loaded")).isEqualTo("loaded");
+
+        assertThat(cache.get(1L, () -> "reloaded")).isEqualTo("loaded");
+        assertThat(remote.get(1L, String.class)).isEqualTo("loaded");
+    }
+
+    private double gets(String level, String result) {
+        return meterRegistry.get("cache.two-level.gets")
+                .tags("cache", "posts", "level", level, "result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,121 @@
+package com.techblog.controller;
+
+import com.techblog.entity.User;
+import com.techblog.service.CommentCountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    @MockBean
+    private CommentCountService commentCountService;
+
+    @Test
+    void commentPagesAreServedAsynchronouslyAndRevalidateWithoutQuerying() throws Exception {
+        when(commentCountService.getVersion(7L)).thenReturn(CompletableFuture.completedFuture(3L));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                QueryResponse.builder().items(List.of(Map.of(
+                        "commentId", AttributeValue.builder().s("c1").build(),
+                        "postId", AttributeValue.builder().s("7").build(),
+                        "authorId", AttributeValue.builder().s("1").build(),
+                        "authorUsername", AttributeValue.builder().s("author").build(),
+                        "content", AttributeValue.builder().s("First").build(),
+                        "createdAt", AttributeValue.builder().s("2024-01-01T00:00:00Z").build()))).build()));
+
+        MvcResult first = mockMvc.perform(get("/api/posts/7/comments"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String etag = mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].content").value("First"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult second = mockMvc.perform(get("/api/posts/7/comments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(second))
+                .andExpect(status().isNotModified());
+        verify(dynamoDbAsyncClient, times(1)).query(any(QueryRequest.class));
+
+        when(commentCountService.getVersion(7L)).thenReturn(CompletableFuture.completedFuture(4L));
+        MvcResult afterDelete = mockMvc.perform(get("/api/posts/7/comments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(afterDelete))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void failedLoadsAreServerErrorsWithoutCachingHeaders() throws Exception {
+        when(commentCountService.getVersion(8L)).thenReturn(CompletableFuture.completedFuture(1L));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                DynamoDbException.builder().message("throttled").build()));
+
+        MvcResult result = mockMvc.perform(get("/api/posts/8/comments"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, not(containsString("public"))));
+    }
+
+    @Test
+    void deletingSomeoneElsesCommentIsForbidden() throws Exception {
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                ConditionalCheckFailedException.builder()
+                        .item(Map.of("commentId", AttributeValue.builder().s("c1").build(),
+                                "authorId", AttributeValue.builder().s("1").build()))
+                        .build()));
+        User other = User.builder().id(2L).username("other").email("other@example.com").password("secret")
+                .role(User.Role.USER).build();
+
+        MvcResult result = mockMvc.perform(delete("/api/comments/c1").with(user(other)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,125 @@
+package com.techblog.controller;
+
+import com.techblog.entity.Post;
+import com.techblog.entity.User;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import com.techblog.service.ListingVersion;
+import com.techblog.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class PostControllerConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PostService postService;
+
+    @MockBean
+    private ListingVersion listingVersion;
+
+    @BeforeEach
+    void setUp() {
+        User author = userRepository.save(User.builder()
+                .username("etagauthor")
+                .email("etagauthor@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build());
+        postRepository.save(Post.builder()
+                .title("Conditional")
+                .slug("conditional")
+                .content("Content")
+                .author(author)
+                .status(Post.Status.PUBLISHED)
+                .viewCount(0)
+                .likeCount(0)
+                .build());
+        when(listingVersion.current(any())).thenReturn("v1");
+    }
+
+    @Test
+    void postDetailRevalidatesWithEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/posts/conditional"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        mockMvc.perform(get("/api/posts/conditional").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void feedPageRevalidatesWithEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, "W/\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void feedRevalidationSkipsLoadingUntilTheListingVersionMoves() throws Exception {
+        String etag = mockMvc.perform(get("/api/posts/feed"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+        verify(postService, times(1)).getPublishedFeed(any(), anyInt(), any());
+
+        when(listingVersion.current(any())).thenReturn("v2");
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void listingsWithoutAVersionAreServedUncached() throws Exception {
+        when(listingVersion.current(any())).thenReturn(null);
+
+        mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,197 @@
+package com.techblog.search;
+
+import com.techblog.dto.AutocompleteResponse;
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.dto.SuggestionResponse;
+import com.techblog.entity.Post;
+import com.techblog.entity.User;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import com.techblog.service.PostChangedEvent;
+import com.techblog.service.PostCountersFlushedEvent;
+import com.techblog.service.UserRegisteredEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteServiceTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AutocompleteService service = new AutocompleteService(postRepository, userRepository);
+
+    @Test
+    void buildWeighsTagsAndAuthorsByTheirPosts() {
+        givenUsers(new Object[]{1L, "alice"}, new Object[]{2L, "bob"});
+        givenPublished(summary(10L, "Kafka basics", "kafka,java", 1L, 4, 1),
+                summary(11L, "Kafka streams", "kafka", 1L, 0, 0));
+
+        service.rebuild();
+
+        assertThat(weight(service.complete("kafka b", 10).getPosts())).isEqualTo(10);
+        assertThat(service.complete("kafka", 10).getTags())
+                .extracting(SuggestionResponse::getText, SuggestionResponse::getWeight)
+                .containsExactly(tuple("kafka", 11.0));
+        assertThat(weight(service.complete("java", 10).getTags())).isEqualTo(10);
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(12);
+        assertThat(weight(service.complete("bob", 10).getUsers())).isEqualTo(1);
+    }
+
+    @Test
+    void movingAPostBetweenTagsAndAuthorsMovesItsWeight() {
+        givenUsers(new Object[]{1L, "alice"}, new Object[]{2L, "bob"});
+        givenPublished();
+        service.rebuild();
+        publish(10L, "Kafka basics", "kafka", 1L, 4);
+
+        publish(10L, "Kafka basics", "rust", 2L, 4);
+
+        assertThat(service.complete("kafka", 10).getTags()).isEmpty();
+        assertThat(weight(service.complete("rust", 10).getTags())).isEqualTo(5);
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(1);
+        assertThat(weight(service.complete("bob", 10).getUsers())).isEqualTo(6);
+    }
+
+    @Test
+    void unpublishingRemovesThePostAndItsWeight() {
+        givenUsers(new Object[]{1L, "alice"});
+        givenPublished();
+        service.rebuild();
+        publish(10L, "Kafka basics", "kafka,java", 1L, 4);
+        publish(11L, "Java records", "java", 1L, 0);
+
+        service.onPostChanged(new PostChangedEvent(Post.builder().id(10L).status(Post.Status.DRAFT).build(), false));
+
+        AutocompleteResponse kafka = service.complete("kafka", 10);
+        assertThat(kafka.getPosts()).isEmpty();
+        assertThat(kafka.getTags()).isEmpty();
+        assertThat(weight(service.complete("java", 10).getTags())).isEqualTo(1);
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(2);
+
+        service.onPostChanged(new PostChangedEvent(Post.builder().id(11L).build(), true));
+        assertThat(service.complete("java", 10).getTags()).isEmpty();
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(1);
+    }
+
+    @Test
+    void flushedCountersReweightIndexedPostsOnly() {
+        givenUsers(new Object[]{1L, "alice"});
+        givenPublished(summary(10L, "Kafka basics", "kafka", 1L, 0, 0));
+        service.rebuild();
+        when(postRepository.findSummariesByIdIn(anyCollection())).thenReturn(List.of(
+                summary(10L, "Kafka basics", "kafka", 1L, 9, 2),
+                summary(12L, "Kafka draft", "kafka", 1L, 50, 0)));
+
+        service.onCountersFlushed(new PostCountersFlushedEvent(Set.of(10L, 12L), Set.of(10L)));
+
+        assertThat(service.complete("kafka", 10).getPosts())
+                .extracting(SuggestionResponse::getText, SuggestionResponse::getWeight)
+                .containsExactly(tuple("Kafka basics", 20.0));
+        assertThat(weight(service.complete("kafka", 10).getTags())).isEqualTo(20);
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(21);
+    }
+
+    @Test
+    void registeredUsersAreSuggestedWithBaseWeight() {
+        service.onUserRegistered(new UserRegisteredEvent(3L, "carol"));
+
+        assertThat(weight(service.complete("car", 10).getUsers())).isEqualTo(1);
+    }
+
+    @Test
+    void updatesDuringTheRebuildAreReplayedOntoTheFreshTries() {
+        givenUsers(new Object[]{1L, "alice"});
+        when(postRepository.findSummariesByStatus(eq(Post.Status.PUBLISHED), any(Pageable.class))).thenAnswer(call -> {
+            service.onUserRegistered(new UserRegisteredEvent(2L, "bob"));
+            publish(11L, "Kafka streams", "kafka", 2L, 0);
+            return new PageImpl<>(List.of(summary(10L, "Kafka basics", "kafka", 1L, 0, 0)));
+        });
+
+        service.rebuild();
+
+        assertThat(service.complete("kafka", 10).getPosts()).hasSize(2);
+        assertThat(weight(service.complete("kafka", 10).getTags())).isEqualTo(2);
+        assertThat(weight(service.complete("bob", 10).getUsers())).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildPicksUpPostsAndWeightsFromOtherInstances() {
+        givenUsers(new Object[]{1L, "alice"});
+        givenPublished(summary(10L, "Kafka basics", "kafka", 1L, 0, 0));
+        service.rebuild();
+        givenPublished(summary(10L, "Kafka basics", "kafka", 1L, 9, 0),
+                summary(11L, "Rust ownership", "rust", 1L, 0, 0));
+
+        service.rebuild();
+
+        assertThat(weight(service.complete("kafka", 10).getPosts())).isEqualTo(10);
+        assertThat(weight(service.complete("rust", 10).getPosts())).isEqualTo(1);
+        assertThat(weight(service.complete("alice", 10).getUsers())).isEqualTo(12);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentSuggestions() {
+        givenUsers(new Object[]{1L, "alice"});
+        givenPublished(summary(10L, "Kafka basics", "kafka", 1L, 0, 0));
+        service.rebuild();
+        when(postRepository.findSummariesByStatus(eq(Post.Status.PUBLISHED), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("down"));
+
+        service.rebuild();
+
+        assertThat(service.complete("kafka", 10).getPosts()).hasSize(1);
+    }
+
+    private void givenUsers(Object[]... rows) {
+        when(userRepository.findAllIdsAndUsernames()).thenReturn(List.of(rows));
+    }
+
+    private void givenPublished(PostSummaryResponse... summaries) {
+        when(postRepository.findSummariesByStatus(eq(Post.Status.PUBLISHED), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summaries)));
+    }
+
+    private void publish(Long id, String title, String tags, Long authorId, int views) {
+        Post post = Post.builder()
+                .id(id)
+                .title(title)
+                .slug("post-" + id)
+                .tags(tags)
+                .author(User.builder().id(authorId).build())
+                .status(Post.Status.PUBLISHED)
+                .viewCount(views)
+                .likeCount(0)
+                .build();
+        service.onPostChanged(new PostChangedEvent(post, false));
+    }
+
+    private static PostSummaryResponse summary(Long id, String title, String tags, Long authorId, int views,
+                                               int likes) {
+        PostSummaryResponse summary = new PostSummaryResponse();
+        summary.setId(id);
+        summary.setTitle(title);
+        summary.setSlug("post-" + id);
+        summary.setTags(tags);
+        summary.setAuthorId(authorId);
+        summary.setStatus(Post.Status.PUBLISHED.name());
+        summary.setViewCount(views);
+        summary.setLikeCount(likes);
+        return summary;
+    }
+
+    private static double weight(List<SuggestionResponse> suggestions) {
+        assertThat(suggestions).hasSize(1);
+        return suggestions.get(0).getWeight();
+    }
+}
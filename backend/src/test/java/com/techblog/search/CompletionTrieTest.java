@@ -0,0 +1,50 @@
+package com.techblog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompletionTrieTest {
+
+    @Test
+    void completesHeaviestFirstFromAnyIndexedKey() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put(completion("p1", "Introduction to Kafka", 10), List.of("Introduction to Kafka", "Kafka"));
+        trie.put(completion("p2", "Kafka Streams in practice", 50), List.of("Kafka Streams in practice"));
+        trie.put(completion("p3", "Kubernetes operators", 99), List.of("Kubernetes operators"));
+
+        assertThat(trie.complete("ka", 10)).extracting(CompletionTrie.Completion::id).containsExactly("p2", "p1");
+        assertThat(trie.complete("K", 2)).extracting(CompletionTrie.Completion::id).containsExactly("p3", "p2");
+        assertThat(trie.complete("intro", 10)).extracting(CompletionTrie.Completion::id).containsExactly("p1");
+        assertThat(trie.complete("rust", 10)).isEmpty();
+    }
+
+    @Test
+    void reweightingAndRemovalRepairCachedLists() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put(completion("a", "java", 5), List.of("java"));
+        trie.put(completion("b", "javascript", 1), List.of("javascript"));
+        assertThat(trie.complete("jav", 10)).extracting(CompletionTrie.Completion::id).containsExactly("a", "b");
+
+        trie.put(completion("b", "javascript", 9), List.of("javascript"));
+        assertThat(trie.complete("jav", 10)).extracting(CompletionTrie.Completion::id).containsExactly("b", "a");
+
+        trie.remove("b");
+        assertThat(trie.complete("javas", 10)).isEmpty();
+        assertThat(trie.complete("jav", 10)).extracting(CompletionTrie.Completion::id).containsExactly("a");
+    }
+
+    @Test
+    void matchesAcrossCaseAndAccents() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put(completion("u1", "Renée", 1), List.of("Renée"));
+
+        assertThat(trie.complete("RENE", 10)).extracting(CompletionTrie.Completion::text).containsExactly("Renée");
+    }
+
+    private static CompletionTrie.Completion completion(String id, String text, double weight) {
+        return new CompletionTrie.Completion(id, text, null, weight);
+    }
+}
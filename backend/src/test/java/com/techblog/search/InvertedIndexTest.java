@@ -0,0 +1,64 @@
+package com.techblog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void ranksTitleMatchesAboveBodyMentions() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1L, "Cooking pasta", "A long post that mentions kafka once among many other words."));
+        index.put(document(2L, "Introduction to Kafka", "Topics, partitions and consumer groups."));
+        index.put(document(3L, "Gardening", "Nothing relevant here."));
+
+        List<InvertedIndex.Hit> hits = index.search("kafka ", 10);
+
+        assertThat(hits).extracting(hit -> hit.document().id()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void prefixQueriesExpandOverTheDictionary() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1L, "Kubernetes operators", "Reconcile loops."));
+        index.put(document(2L, "Kafka streams", "Stateful processing."));
+
+        assertThat(index.search("kube", 10)).extracting(hit -> hit.document().id()).containsExactly(1L);
+        assertThat(index.search("kube ", 10)).isEmpty();
+        assertThat(index.search("stream* kafka", 10)).extracting(hit -> hit.document().id()).containsExactly(2L);
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1L, "Draft about Redis", "Caching."));
+        index.put(document(1L, "Final about Postgres", "Indexes."));
+
+        assertThat(index.search("redis ", 10)).isEmpty();
+        assertThat(index.search("postgres ", 10)).hasSize(1);
+
+        index.remove(1L);
+        assertThat(index.search("postgres ", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void highlightsMatchesAndEscapesHtml() {
+        Set<String> terms = Set.of("kafka");
+
+        assertThat(Highlighter.highlight("Kafka <3 Kafka", terms))
+                .isEqualTo("<mark>Kafka</mark> &lt;3 <mark>Kafka</mark>");
+        assertThat(Highlighter.snippet("word ".repeat(50) + "kafka rocks", terms, 80))
+                .startsWith("… ")
+                .contains("<mark>kafka</mark> rocks");
+    }
+
+    private static SearchDocument document(Long id, String title, String content) {
+        return new SearchDocument(id, title, "slug-" + id, null, content, null, Instant.now());
+    }
+}
@@ -0,0 +1,118 @@
+package com.techblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.techblog.dto.CommentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The cache's Lua scripts need a Redis server; these tests cover the encoding
+ * and the arguments the scripts are called with.
+ */
+class CommentCacheTest {
+
+    private static final List<String> KEYS = List.of("comments:{7}:head", "comments:{7}:generation");
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final CommentCache cache = cache(true);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storedHeadsReadBackWithTheirGeneration() throws Exception {
+        CommentResponse comment = comment("c1", "2024-01-01T00:00:00Z");
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS))).thenReturn(
+                List.of("5", "more", "c1|" + objectMapper.writeValueAsString(comment)));
+
+        CommentCache.Lookup lookup = cache.lookup(7L);
+
+        assertThat(lookup.generation()).isEqualTo("5");
+        assertThat(lookup.head().comments()).containsExactly(comment);
+        assertThat(lookup.head().hasMore()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void missCarriesTheGenerationToStoreAgainst() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS))).thenReturn(List.of("0"));
+
+        CommentCache.Lookup lookup = cache.lookup(7L);
+
+        assertThat(lookup.head()).isNull();
+        assertThat(lookup.generation()).isEqualTo("0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableRedisIsAMissThatStoresNothing() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(cache.lookup(7L)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storePassesTheExpectedGenerationMarkerAndComments() {
+        CommentCache.Head head = new CommentCache.Head(List.of(comment("c1", "2024-01-01T00:00:00Z")), false);
+
+        cache.store(7L, "4", head).join();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq("4"), eq("300"), eq("last"),
+                startsWith("c1|{"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedEditEvictsTheHead() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("script failed"));
+
+        cache.removed(7L, "c1").join();
+
+        verify(redisTemplate).delete("comments:{7}:head");
+    }
+
+    @Test
+    void disabledCacheNeverTouchesRedis() {
+        CommentCache disabled = cache(false);
+
+        assertThat(disabled.lookup(7L)).isNull();
+        disabled.added(comment("c1", "2024-01-01T00:00:00Z")).join();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private CommentCache cache(boolean enabled) {
+        return new CommentCache(redisTemplate, objectMapper, new SyncTaskExecutor(), Duration.ofMinutes(5), enabled);
+    }
+
+    private static CommentResponse comment(String commentId, String createdAt) {
+        CommentResponse comment = new CommentResponse();
+        comment.setId(commentId);
+        comment.setPostId(7L);
+        comment.setAuthorId(1L);
+        comment.setAuthorUsername("author");
+        comment.setContent("text");
+        comment.setCreatedAt(Instant.parse(createdAt));
+        return comment;
+    }
+}
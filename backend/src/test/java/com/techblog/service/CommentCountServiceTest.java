@@ -0,0 +1,133 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostSummaryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CommentCountServiceTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    private final CommentCountService service = new CommentCountService(dynamoDbClient, dynamoDbAsyncClient,
+            new DynamoDbCapacityMeter(new SimpleMeterRegistry()), new SyncTaskExecutor(), "counts",
+            Duration.ofMinutes(1));
+
+    @Test
+    void readsAPageOfCountsInOneBatchAndCachesThem() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("counts", List.of(counter(1L, 3), counter(2L, -1))))
+                .build());
+
+        assertThat(service.getCounts(List.of(1L, 2L, 3L)))
+                .containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3L, 2L, 0L, 3L, 0L));
+        assertThat(service.getCounts(List.of(1L, 3L))).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3L, 3L, 0L));
+
+        verify(dynamoDbClient, times(1)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    void splitsLargeLookupsAndRetriesUnprocessedKeys() {
+        KeysAndAttributes unprocessed = KeysAndAttributes.builder().keys(List.of(key(5L))).build();
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder().unprocessedKeys(Map.of("counts", unprocessed)).build())
+                .thenReturn(BatchGetItemResponse.builder().responses(Map.of("counts", List.of(counter(5L, 2)))).build())
+                .thenReturn(BatchGetItemResponse.builder().build());
+
+        Map<Long, Long> counts = service.getCounts(LongStream.rangeClosed(1, 150).boxed().toList());
+
+        ArgumentCaptor<BatchGetItemRequest> requests = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbClient, times(3)).batchGetItem(requests.capture());
+        assertThat(requests.getAllValues()).extracting(request -> request.requestItems().get("counts").keys().size())
+                .containsExactly(CommentCountService.MAX_BATCH_KEYS, 1, 50);
+        assertThat(counts).hasSize(150).containsEntry(5L, 2L).containsEntry(150L, 0L);
+    }
+
+    @Test
+    void failuresLeaveCountsOutWithoutCachingThem() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenThrow(new IllegalStateException("unavailable"))
+                .thenReturn(BatchGetItemResponse.builder().responses(Map.of("counts", List.of(counter(1L, 4)))).build());
+
+        assertThat(service.getCounts(List.of(1L))).isEmpty();
+        assertThat(service.getCounts(List.of(1L))).containsEntry(1L, 4L);
+    }
+
+    @Test
+    void attachesCountsToSummaries() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("counts", List.of(counter(1L, 2))))
+                .build());
+        List<PostSummaryResponse> posts = List.of(summary(1L), summary(2L));
+
+        service.attachTo(posts);
+
+        assertThat(posts).extracting(PostSummaryResponse::getCommentCount).containsExactly(2L, 0L);
+    }
+
+    @Test
+    void versionsAreReadWithoutBlockingAndShareTheCachedCounter() {
+        when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().item(Map.of(
+                        "postId", AttributeValue.builder().s("1").build(),
+                        "commentCount", AttributeValue.builder().n("2").build(),
+                        "commentVersion", AttributeValue.builder().n("9").build())).build()))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+
+        assertThat(service.getVersion(1L).join()).isEqualTo(9L);
+        assertThat(service.getVersion(2L).join()).isZero();
+        assertThat(service.getVersion(1L).join()).isEqualTo(9L);
+        assertThat(service.getCounts(List.of(1L))).containsEntry(1L, 2L);
+        verify(dynamoDbAsyncClient, times(2)).getItem(any(GetItemRequest.class));
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    void unreadableVersionsCompleteWithNullAndAreNotCached() {
+        when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+
+        assertThat(service.getVersion(1L).join()).isNull();
+        assertThat(service.getVersion(1L).join()).isNull();
+        verify(dynamoDbAsyncClient, times(2)).getItem(any(GetItemRequest.class));
+    }
+
+    private static PostSummaryResponse summary(Long postId) {
+        PostSummaryResponse post = new PostSummaryResponse();
+        post.setId(postId);
+        return post;
+    }
+
+    private static Map<String, AttributeValue> key(Long postId) {
+        return Map.of("postId", AttributeValue.builder().s(postId.toString()).build());
+    }
+
+    private static Map<String, AttributeValue> counter(Long postId, long count) {
+        return Map.of(
+                "postId", AttributeValue.builder().s(postId.toString()).build(),
+                "commentCount", AttributeValue.builder().n(Long.toString(count)).build());
+    }
+}
@@ -0,0 +1,338 @@
+package com.techblog.service;
+
+import com.techblog.dto.CommentRequest;
+import com.techblog.dto.CommentResponse;
+import com.techblog.dto.CursorPageResponse;
+import com.techblog.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceTest {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentCountService commentCountService = mock(CommentCountService.class);
+    private final CommentCache commentCache = commentCache();
+    private final CommentService commentService = commentService(dynamoDbAsyncClient);
+
+    @Test
+    void topsUpShortPagesAndEncodesTheLastEvaluatedKey() {
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+                .thenReturn(completed(QueryResponse.builder().items(List.of(item("c1", "2024-01-01T00:00:00Z")))
+                        .lastEvaluatedKey(key("c2", "2024-01-02T00:00:00Z")).build()))
+                .thenReturn(completed(QueryResponse.builder().items(List.of(item("c3", "2024-01-03T00:00:00Z")))
+                        .lastEvaluatedKey(key("c3", "2024-01-03T00:00:00Z")).build()));
+
+        CursorPageResponse<CommentResponse> page = commentService.getComments(7L, 2, null, false).join();
+
+        ArgumentCaptor<QueryRequest> requests = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbAsyncClient, times(2)).query(requests.capture());
+        assertThat(requests.getAllValues()).extracting(QueryRequest::limit).containsExactly(2, 1);
+        assertThat(requests.getAllValues()).allMatch(request -> !request.scanIndexForward());
+        assertThat(requests.getAllValues()).allMatch(request -> CommentService.LIVE_INDEX.equals(request.indexName())
+                && request.filterExpression() == null);
+        assertThat(requests.getAllValues().get(1).exclusiveStartKey()).isEqualTo(key("c2", "2024-01-02T00:00:00Z"));
+        assertThat(page.getItems()).extracting(CommentResponse::getId).containsExactly("c1", "c3");
+        assertThat(page.isHasMore()).isTrue();
+
+        CommentCursor cursor = CommentCursor.decode(page.getNextCursor(), 7L, false);
+        assertThat(cursor.toExclusiveStartKey("livePostId")).isEqualTo(key("c3", "2024-01-03T00:00:00Z"));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+                .thenReturn(completed(QueryResponse.builder().items(List.of(item("c1", "2024-01-01T00:00:00Z"))).build()));
+
+        CursorPageResponse<CommentResponse> page = commentService.getComments(7L, 20, null, true).join();
+
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    void rejectsCursorsForAnotherPostOrOrder() {
+        String cursor = CommentCursor.from(key("c1", "2024-01-01T00:00:00Z"), "livePostId", true).encode();
+
+        assertThatThrownBy(() -> commentService.getComments(8L, 20, cursor, true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commentService.getComments(7L, 20, cursor, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commentService.getComments(7L, 20, "not-a-cursor!", true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void legacyIndexFiltersDeletedCommentsAndKeepsCursorsValid() {
+        ReflectionTestUtils.setField(commentService, "liveIndexEnabled", false);
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+                .thenReturn(completed(QueryResponse.builder().items(List.of(item("c2", "2024-01-02T00:00:00Z"))).build()));
+        String cursor = CommentCursor.from(key("c1", "2024-01-01T00:00:00Z"), "livePostId", true).encode();
+
+        commentService.getComments(7L, 20, cursor, true).join();
+
+        ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbAsyncClient).query(request.capture());
+        assertThat(request.getValue().indexName()).isEqualTo(CommentService.LEGACY_INDEX);
+        assertThat(request.getValue().filterExpression()).isEqualTo("isDeleted = :isDeleted");
+        assertThat(request.getValue().exclusiveStartKey()).containsOnlyKeys("commentId", "postId", "createdAt");
+    }
+
+    @Test
+    void createWritesCommentAndCounterInOneTransaction() {
+        when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(completed(TransactWriteItemsResponse.builder().build()));
+        CommentRequest request = new CommentRequest();
+        request.setContent("Hello");
+
+        commentService.createComment(7L, request, user(1L, User.Role.USER)).join();
+
+        ArgumentCaptor<TransactWriteItemsRequest> transaction = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDbAsyncClient).transactWriteItems(transaction.capture());
+        List<TransactWriteItem> items = transaction.getValue().transactItems();
+        assertThat(items.get(0).put().item().get("livePostId").s()).isEqualTo("7");
+        assertThat(items.get(1).update().tableName()).isEqualTo("comment-counts");
+        assertThat(items.get(1).update().updateExpression()).isEqualTo("ADD commentCount :delta, commentVersion :one");
+        assertThat(items.get(1).update().expressionAttributeValues().get(":delta").n()).isEqualTo("1");
+        verify(commentCountService).evict(7L);
+    }
+
+    @Test
+    void softDeleteIsOneConditionalUpdateFollowedByADecrement() {
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(completed(UpdateItemResponse.builder().attributes(item("c1", "2024-01-01T00:00:00Z")).build()))
+                .thenReturn(completed(UpdateItemResponse.builder().build()));
+
+        commentService.deleteComment("c1", user(1L, User.Role.USER)).join();
+
+        ArgumentCaptor<UpdateItemRequest> requests = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbAsyncClient, times(2)).updateItem(requests.capture());
+        UpdateItemRequest delete = requests.getAllValues().get(0);
+        assertThat(delete.updateExpression()).isEqualTo("SET isDeleted = :del REMOVE livePostId");
+        assertThat(delete.conditionExpression())
+                .isEqualTo("attribute_exists(commentId) AND isDeleted = :live AND authorId = :authorId");
+        assertThat(delete.expressionAttributeValues().get(":authorId").s()).isEqualTo("1");
+        assertThat(delete.returnValuesOnConditionCheckFailure()).isEqualTo(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+        UpdateItemRequest decrement = requests.getAllValues().get(1);
+        assertThat(decrement.tableName()).isEqualTo("comment-counts");
+        assertThat(decrement.key().get("postId").s()).isEqualTo("7");
+        assertThat(decrement.expressionAttributeValues().get(":delta").n()).isEqualTo("-1");
+        assertThat(decrement.updateExpression()).contains("commentVersion :one");
+        verify(commentCountService).evict(7L);
+    }
+
+    @Test
+    void deleteBumpsTheVersionEvenWhenTheCounterIsAlreadyZero() {
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(completed(UpdateItemResponse.builder().attributes(item("c1", "2024-01-01T00:00:00Z")).build()))
+                .thenReturn(CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()))
+                .thenReturn(completed(UpdateItemResponse.builder().build()));
+
+        commentService.deleteComment("c1", user(1L, User.Role.USER)).join();
+
+        ArgumentCaptor<UpdateItemRequest> requests = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbAsyncClient, times(3)).updateItem(requests.capture());
+        UpdateItemRequest bump = requests.getAllValues().get(2);
+        assertThat(bump.updateExpression()).isEqualTo("ADD commentVersion :one");
+        assertThat(bump.conditionExpression()).isNull();
+        verify(commentCountService).evict(7L);
+    }
+
+    @Test
+    void adminDeleteDoesNotRequireAuthorship() {
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(completed(UpdateItemResponse.builder().attributes(item("c1", "2024-01-01T00:00:00Z")).build()))
+                .thenReturn(completed(UpdateItemResponse.builder().build()));
+
+        commentService.deleteComment("c1", user(2L, User.Role.ADMIN)).join();
+
+        ArgumentCaptor<UpdateItemRequest> requests = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbAsyncClient, times(2)).updateItem(requests.capture());
+        assertThat(requests.getAllValues().get(0).conditionExpression())
+                .isEqualTo("attribute_exists(commentId) AND isDeleted = :live");
+    }
+
+    @Test
+    void deletingAnAlreadyDeletedCommentLeavesTheCounterAlone() {
+        Map<String, AttributeValue> deleted = new HashMap<>(item("c1", "2024-01-01T00:00:00Z"));
+        deleted.put("isDeleted", AttributeValue.builder().bool(true).build());
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                ConditionalCheckFailedException.builder().item(deleted).build()));
+
+        commentService.deleteComment("c1", user(1L, User.Role.USER)).join();
+
+        verify(dynamoDbAsyncClient, times(1)).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    void failedConditionDistinguishesMissingFromForeignComments() {
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()))
+                .thenReturn(CompletableFuture.failedFuture(ConditionalCheckFailedException.builder()
+                        .item(item("c1", "2024-01-01T00:00:00Z")).build()));
+
+        assertThatThrownBy(() -> commentService.deleteComment("c1", user(3L, User.Role.USER)).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commentService.deleteComment("c1", user(3L, User.Role.USER)).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void firstPagesAreServedFromTheCachedHead() {
+        CommentCache.Head head = new CommentCache.Head(List.of(
+                comment("c1", "2024-01-01T00:00:00Z"), comment("c2", "2024-01-02T00:00:00Z")), false);
+        when(commentCache.lookup(7L)).thenReturn(new CommentCache.Lookup(head, "3"));
+
+        CursorPageResponse<CommentResponse> page = commentService.getComments(7L, 1, null, true).join();
+
+        verify(dynamoDbAsyncClient, never()).query(any(QueryRequest.class));
+        assertThat(page.getItems()).extracting(CommentResponse::getId).containsExactly("c1");
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CommentCursor.decode(page.getNextCursor(), 7L, true).toExclusiveStartKey("livePostId"))
+                .isEqualTo(key("c1", "2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void missLoadsAFullHeadAndStoresItAgainstTheGenerationItRead() {
+        when(commentCache.lookup(7L)).thenReturn(new CommentCache.Lookup(null, "4"));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(completed(QueryResponse.builder()
+                .items(List.of(item("c1", "2024-01-01T00:00:00Z"), item("c2", "2024-01-02T00:00:00Z")))
+                .build()));
+
+        CursorPageResponse<CommentResponse> page = commentService.getComments(7L, 1, null, true).join();
+
+        ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbAsyncClient).query(request.capture());
+        assertThat(request.getValue().limit()).isEqualTo(CommentCache.HEAD_SIZE);
+        ArgumentCaptor<CommentCache.Head> stored = ArgumentCaptor.forClass(CommentCache.Head.class);
+        verify(commentCache).store(eq(7L), eq("4"), stored.capture());
+        assertThat(stored.getValue().comments()).extracting(CommentResponse::getId).containsExactly("c1", "c2");
+        assertThat(stored.getValue().hasMore()).isFalse();
+        assertThat(page.getItems()).extracting(CommentResponse::getId).containsExactly("c1");
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void createsAndDeletesEditTheCachedHead() {
+        when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(completed(TransactWriteItemsResponse.builder().build()));
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(completed(UpdateItemResponse.builder().attributes(item("c1", "2024-01-01T00:00:00Z")).build()))
+                .thenReturn(completed(UpdateItemResponse.builder().build()));
+        CommentRequest request = new CommentRequest();
+        request.setContent("Second");
+
+        CommentResponse created = commentService.createComment(7L, request, user(2L, User.Role.USER)).join();
+        commentService.deleteComment("c1", user(1L, User.Role.USER)).join();
+
+        verify(commentCache).added(created);
+        verify(commentCache).removed(7L, "c1");
+    }
+
+    @Test
+    void recordsConsumedCapacityPerIndex() {
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(completed(QueryResponse.builder()
+                .consumedCapacity(ConsumedCapacity.builder()
+                        .tableName("comments")
+                        .globalSecondaryIndexes(Map.of(CommentService.LIVE_INDEX,
+                                Capacity.builder().capacityUnits(0.5).build()))
+                        .build())
+                .build()));
+
+        commentService.getComments(7L, 20, null, true).join();
+
+        assertThat(meterRegistry.get("dynamodb.consumed.capacity")
+                .tags("index", CommentService.LIVE_INDEX, "operation", "Query")
+                .summary()
+                .totalAmount()).isEqualTo(0.5);
+    }
+
+    private CommentService commentService(DynamoDbAsyncClient asyncClient) {
+        CommentService service = new CommentService(mock(DynamoDbClient.class), asyncClient,
+                new DynamoDbCapacityMeter(meterRegistry), commentCountService, commentCache);
+        ReflectionTestUtils.setField(service, "commentsTable", "comments");
+        ReflectionTestUtils.setField(service, "countsTable", "comment-counts");
+        ReflectionTestUtils.setField(service, "liveIndexEnabled", true);
+        return service;
+    }
+
+    private static CommentCache commentCache() {
+        CommentCache cache = mock(CommentCache.class);
+        when(cache.store(any(), any(), any())).thenReturn(completed(null));
+        when(cache.added(any())).thenReturn(completed(null));
+        when(cache.removed(any(), any())).thenReturn(completed(null));
+        return cache;
+    }
+
+    private static <T> CompletableFuture<T> completed(T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    private static User user(Long id, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+
+    private static CommentResponse comment(String commentId, String createdAt) {
+        CommentResponse comment = new CommentResponse();
+        comment.setId(commentId);
+        comment.setPostId(7L);
+        comment.setCreatedAt(Instant.parse(createdAt));
+        return comment;
+    }
+
+    private static Map<String, AttributeValue> key(String commentId, String createdAt) {
+        return Map.of(
+                "commentId", AttributeValue.builder().s(commentId).build(),
+                "livePostId", AttributeValue.builder().s("7").build(),
+                "createdAt", AttributeValue.builder().s(createdAt).build());
+    }
+
+    private static Map<String, AttributeValue> item(String commentId, String createdAt) {
+        return Map.of(
+                "commentId", AttributeValue.builder().s(commentId).build(),
+                "postId", AttributeValue.builder().s("7").build(),
+                "authorId", AttributeValue.builder().s("1").build(),
+                "authorUsername", AttributeValue.builder().s("author").build(),
+                "content", AttributeValue.builder().s("text").build(),
+                "createdAt", AttributeValue.builder().s(createdAt).build());
+    }
+}
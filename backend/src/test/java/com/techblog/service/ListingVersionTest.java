@@ -0,0 +1,82 @@
+package com.techblog.service;
+
+import com.techblog.entity.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The read script needs a Redis server; these tests cover which keys are read
+ * and which changes replace a token.
+ */
+class ListingVersionTest {
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ListingVersion listingVersion = new ListingVersion(redisTemplate, true);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void signedInReadersAlsoReadTheirOwnToken() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(ListingVersion.KEY)), anyString()))
+                .thenReturn(List.of("shared"));
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of(ListingVersion.KEY, "listing:{version}:user:7")), anyString()))
+                .thenReturn(List.of("shared", "mine"));
+
+        assertThat(listingVersion.current(null)).isEqualTo("shared");
+        assertThat(listingVersion.current(User.builder().id(7L).build())).isEqualTo("shared:7:mine");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableRedisServesListingsWithoutAVersion() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(listingVersion.current(null)).isNull();
+    }
+
+    @Test
+    void postChangesLikeFlushesAndLikesReplaceTokens() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+
+        listingVersion.onPostChanged(new PostChangedEvent(null, true));
+        listingVersion.onCountersFlushed(new PostCountersFlushedEvent(Set.of(1L), Set.of()));
+        listingVersion.onCountersFlushed(new PostCountersFlushedEvent(Set.of(), Set.of(1L)));
+        listingVersion.likesChanged(7L);
+
+        ArgumentCaptor<String> tokens = ArgumentCaptor.forClass(String.class);
+        verify(values, times(2)).set(eq(ListingVersion.KEY), tokens.capture());
+        verify(values).set(eq("listing:{version}:user:7"), anyString());
+        assertThat(tokens.getAllValues().get(0)).isNotEqualTo(tokens.getAllValues().get(1));
+    }
+
+    @Test
+    void disabledVersionNeverTouchesRedis() {
+        ListingVersion disabled = new ListingVersion(redisTemplate, false);
+
+        assertThat(disabled.current(null)).isNull();
+        disabled.onPostChanged(new PostChangedEvent(null, false));
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
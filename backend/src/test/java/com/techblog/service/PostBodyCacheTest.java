@@ -0,0 +1,98 @@
+package com.techblog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.techblog.dto.PostResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostBodyCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final PostBodyCache cache = new PostBodyCache(objectMapper, 1 << 20);
+
+    @Test
+    void gzipBodyInflatesToIdentityBody() throws IOException {
+        PostView view = new PostView(detail("Hello world. ".repeat(500)), 12, 3, true);
+
+        byte[] identity = cache.render(view, false);
+        byte[] gzip = cache.render(view, true);
+
+        assertThat(gzip.length).isLessThan(identity.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(identity);
+        }
+    }
+
+    @Test
+    void storedPrefixCrcIsContinuedOverEachTail() throws IOException {
+        PostResponse detail = detail("Hello world. ".repeat(500));
+        cache.render(new PostView(detail, 0, 0, false), true);
+
+        for (PostView view : List.of(new PostView(detail, 1, 0, false), new PostView(detail, 123456, 78, true))) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cache.render(view, true)))) {
+                assertThat(in.readAllBytes()).isEqualTo(cache.render(view, false));
+            }
+        }
+        byte[] whole = "prefix and tail".getBytes(StandardCharsets.UTF_8);
+        CRC32 expected = new CRC32();
+        expected.update(whole);
+        CRC32 prefix = new CRC32();
+        prefix.update(whole, 0, 7);
+        assertThat(PostBodyCache.crc32(prefix.getValue(), Arrays.copyOfRange(whole, 7, whole.length)))
+                .isEqualTo(expected.getValue());
+    }
+
+    @Test
+    void perRequestFieldsAreMergedIntoCachedBody() throws IOException {
+        PostResponse detail = detail("Body");
+        cache.render(new PostView(detail, 1, 0, false), true);
+
+        JsonNode json = objectMapper.readTree(cache.render(new PostView(detail, 99, 7, true), false));
+
+        assertThat(json.get("title").asText()).isEqualTo("Title");
+        assertThat(json.get("viewCount").asInt()).isEqualTo(99);
+        assertThat(json.get("likeCount").asInt()).isEqualTo(7);
+        assertThat(json.get("likedByCurrentUser").asBoolean()).isTrue();
+    }
+
+    @Test
+    void updatedDetailIsReserialized() throws IOException {
+        PostResponse original = detail("Before");
+        cache.render(new PostView(original, 0, 0, false), false);
+
+        PostResponse updated = detail("After");
+        updated.setUpdatedAt(original.getUpdatedAt().plusSeconds(1));
+        JsonNode json = objectMapper.readTree(cache.render(new PostView(updated, 0, 0, false), false));
+
+        assertThat(json.get("content").asText()).isEqualTo("After");
+    }
+
+    private static PostResponse detail(String content) {
+        PostResponse post = new PostResponse();
+        post.setId(1L);
+        post.setTitle("Title");
+        post.setSlug("title");
+        post.setContent(content);
+        post.setAuthorUsername("alice");
+        post.setAuthorId(7L);
+        post.setStatus("PUBLISHED");
+        post.setCreatedAt(Instant.parse("2024-03-01T10:15:30Z"));
+        post.setUpdatedAt(Instant.parse("2024-03-01T10:15:30Z"));
+        return post;
+    }
+}
@@ -0,0 +1,46 @@
+package com.techblog.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Reports entry size and decode time of {@link PostCacheCodec} against the
+ * JDK and JSON serializers. Only reports, never fails, and is not part of the
+ * default suite since Surefire only picks up {@code *Test} classes; run it
+ * with {@code mvn test -Dtest=PostCacheCodecBenchmark}.
+ */
+class PostCacheCodecBenchmark {
+
+    private static final int ITERATIONS = 2_000;
+
+    @Test
+    void reportSizesAndDecodeTimes() {
+        RedisSerializer<Object> codec = new PostCacheCodec(1024);
+        RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+        RedisSerializer<Object> json = PostCacheCodecTest.jsonSerializer();
+
+        for (Object entry : PostCacheCodecTest.sampleEntries()) {
+            byte[] binary = codec.serialize(entry);
+            byte[] jdkBytes = jdk.serialize(entry);
+            byte[] jsonBytes = json.serialize(entry);
+
+            System.out.printf("%-20s binary=%6dB %6.2fus  jdk=%6dB %6.2fus  json=%6dB %6.2fus%n",
+                    entry.getClass().getSimpleName(),
+                    binary.length, decodeMicros(codec, binary),
+                    jdkBytes.length, decodeMicros(jdk, jdkBytes),
+                    jsonBytes.length, decodeMicros(json, jsonBytes));
+        }
+    }
+
+    private static double decodeMicros(RedisSerializer<Object> serializer, byte[] bytes) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,103 @@
+package com.techblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.techblog.dto.PostResponse;
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.entity.Post;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostCacheCodecTest {
+
+    private final PostCacheCodec codec = new PostCacheCodec(1024);
+
+    @Test
+    void roundTripsCachedPostValues() {
+        PostSummaryResponse summary = summary(42L);
+        PostResponse detail = detail(42L, "x".repeat(5000));
+        PostCache.FeedPage page = new PostCache.FeedPage(List.of(105L, 103L, 99L, 42L), 420);
+
+        assertThat(codec.deserialize(codec.serialize(summary))).isEqualTo(summary);
+        assertThat(codec.deserialize(codec.serialize(detail))).isEqualTo(detail);
+        assertThat(codec.deserialize(codec.serialize(page))).isEqualTo(page);
+        assertThat(codec.deserialize(codec.serialize(7L))).isEqualTo(7L);
+        assertThat(codec.deserialize(codec.serialize("fallback"))).isEqualTo("fallback");
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        PostSummaryResponse summary = new PostSummaryResponse();
+        summary.setId(1L);
+
+        assertThat(codec.deserialize(codec.serialize(summary))).isEqualTo(summary);
+    }
+
+    @Test
+    void entriesFromAnotherSchemaVersionDecodeAsMiss() {
+        byte[] bytes = codec.serialize(summary(1L));
+        bytes[1] = (byte) (PostCacheCodec.SCHEMA_VERSION + 1);
+
+        assertThat(codec.deserialize(bytes)).isNull();
+    }
+
+    /** Bytes per entry against the JDK serialization the cache manager used before and RedisTemplate's JSON. */
+    @Test
+    void encodesSmallerThanPreviousFormats() {
+        RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+        RedisSerializer<Object> json = jsonSerializer();
+
+        for (Object entry : sampleEntries()) {
+            byte[] binary = codec.serialize(entry);
+
+            assertThat(binary.length).isLessThan(jdk.serialize(entry).length).isLessThan(json.serialize(entry).length);
+        }
+    }
+
+    static RedisSerializer<Object> jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.EVERYTHING);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    static List<Object> sampleEntries() {
+        return List.of(
+                summary(1234L),
+                detail(1234L, "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(80)),
+                new PostCache.FeedPage(LongStream.range(1000, 1010).boxed().toList(), 5000));
+    }
+
+    private static PostSummaryResponse summary(Long id) {
+        return new PostSummaryResponse(id, "Introduction to Kafka", "introduction-to-kafka",
+                "A short tour of topics, partitions and consumer groups.", "https://cdn.example.com/kafka.png",
+                "alice", 7L, Post.Status.PUBLISHED, 1532, 87, "kafka,streaming,java",
+                Instant.parse("2024-03-01T10:15:30.123456Z"), Instant.parse("2024-03-02T08:00:00Z"));
+    }
+
+    private static PostResponse detail(Long id, String content) {
+        PostResponse post = new PostResponse();
+        post.setId(id);
+        post.setTitle("Introduction to Kafka");
+        post.setSlug("introduction-to-kafka");
+        post.setContent(content);
+        post.setExcerpt("A short tour of topics, partitions and consumer groups.");
+        post.setAuthorUsername("alice");
+        post.setAuthorId(7L);
+        post.setStatus("PUBLISHED");
+        post.setViewCount(1532);
+        post.setLikeCount(87);
+        post.setTags("kafka,streaming,java");
+        post.setCreatedAt(Instant.parse("2024-03-01T10:15:30.123456Z"));
+        post.setUpdatedAt(Instant.parse("2024-03-02T08:00:00Z"));
+        return post;
+    }
+}
@@ -0,0 +1,50 @@
+package com.techblog.service;
+
+import com.techblog.cache.SingleFlightCacheLoader;
+import com.techblog.dto.PostResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostCacheTest {
+
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager(PostCache.POST_DETAILS, PostCache.POST_SLUGS);
+    private final PostCache postCache = new PostCache(cacheManager,
+            new SingleFlightCacheLoader(new SyncTaskExecutor(), Duration.ofMinutes(10), 0.0, Duration.ofSeconds(5)));
+
+    @Test
+    void detailsAreCachedByIdBehindTheSlug() {
+        postCache.getDetail("kafka", slug -> 7L, slug -> detail(7L, "v1"));
+
+        PostResponse cached = postCache.getDetail("kafka", slug -> 8L, slug -> detail(8L, "v2"));
+
+        assertThat(cached.getTitle()).isEqualTo("v1");
+        assertThat(cacheManager.getCache(PostCache.POST_SLUGS).get("kafka", Long.class)).isEqualTo(7L);
+    }
+
+    @Test
+    void detailLoadRacingAnEvictionIsNotCached() {
+        PostResponse loaded = postCache.getDetail("kafka", slug -> 7L, slug -> {
+            PostResponse stale = detail(7L, "before update");
+            postCache.evictDetail(7L, "kafka");
+            return stale;
+        });
+
+        assertThat(loaded.getTitle()).isEqualTo("before update");
+        assertThat(cacheManager.getCache(PostCache.POST_DETAILS).get(7L)).isNull();
+        assertThat(postCache.getDetail("kafka", slug -> 7L, slug -> detail(7L, "after update")).getTitle())
+                .isEqualTo("after update");
+    }
+
+    private static PostResponse detail(Long id, String title) {
+        PostResponse detail = new PostResponse();
+        detail.setId(id);
+        detail.setTitle(title);
+        return detail;
+    }
+}
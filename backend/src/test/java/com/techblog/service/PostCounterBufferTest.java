@@ -0,0 +1,80 @@
+package com.techblog.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class PostCounterBufferTest {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:counters;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PostCounterBuffer buffer = new PostCounterBuffer(jdbcTemplate,
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)), eventPublisher);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE posts (id BIGINT PRIMARY KEY, view_count INT, like_count INT)");
+        jdbcTemplate.update("INSERT INTO posts VALUES (1, 10, 0), (2, 20, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE posts");
+    }
+
+    @Test
+    void flushAppliesDeltasAndAnnouncesThem() {
+        buffer.recordView(1L);
+        buffer.recordView(1L);
+        buffer.recordLike(2L, 1);
+
+        buffer.flush();
+
+        assertThat(viewCount(1L)).isEqualTo(12);
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = 2", Integer.class))
+                .isEqualTo(1);
+        assertThat(buffer.pendingViews(1L)).isZero();
+        verify(eventPublisher).publishEvent(new PostCountersFlushedEvent(Set.of(1L), Set.of(2L)));
+    }
+
+    @Test
+    void batchFailingPartwayAppliesNothingAndIsRequeuedWhole() {
+        buffer.recordView(1L);
+        for (int i = 0; i < 3; i++) {
+            buffer.recordView(2L);
+        }
+        jdbcTemplate.execute("ALTER TABLE posts ADD CONSTRAINT capped CHECK (view_count < 21)");
+
+        buffer.flush();
+
+        assertThat(viewCount(1L)).isEqualTo(10);
+        assertThat(viewCount(2L)).isEqualTo(20);
+        assertThat(buffer.pendingViews(1L)).isEqualTo(1);
+        assertThat(buffer.pendingViews(2L)).isEqualTo(3);
+        verifyNoInteractions(eventPublisher);
+
+        jdbcTemplate.execute("ALTER TABLE posts DROP CONSTRAINT capped");
+        buffer.flush();
+
+        assertThat(viewCount(1L)).isEqualTo(11);
+        assertThat(viewCount(2L)).isEqualTo(23);
+    }
+
+    private Integer viewCount(Long postId) {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM posts WHERE id = ?", Integer.class, postId);
+    }
+}
@@ -0,0 +1,96 @@
+package com.techblog.service;
+
+import com.techblog.dto.PostSummaryResponse;
+import com.techblog.entity.Post;
+import com.techblog.entity.PostLike;
+import com.techblog.entity.User;
+import com.techblog.repository.PostLikeRepository;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.cache.type=simple")
+@ActiveProfiles("test")
+@Transactional
+class PostServiceFeedCacheTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User liker;
+    private User otherUser;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        User author = userRepository.save(user("feedauthor"));
+        liker = userRepository.save(user("liker"));
+        otherUser = userRepository.save(user("other"));
+        for (int i = 0; i < 3; i++) {
+            Post post = postRepository.save(Post.builder()
+                    .title("Cached " + i)
+                    .slug("cached-" + i)
+                    .content("Content " + i)
+                    .author(author)
+                    .status(Post.Status.PUBLISHED)
+                    .viewCount(0)
+                    .likeCount(0)
+                    .build());
+            postLikeRepository.save(PostLike.builder().post(post).user(liker).build());
+        }
+    }
+
+    @Test
+    void cachedPageDoesNotLeakLikedFlagsBetweenUsers() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+        assertThat(postService.getPublishedPosts(pageable, liker).getContent())
+                .allMatch(PostSummaryResponse::isLikedByCurrentUser);
+        assertThat(postService.getPublishedPosts(pageable, otherUser).getContent())
+                .noneMatch(PostSummaryResponse::isLikedByCurrentUser);
+        assertThat(postService.getPublishedPosts(pageable, null).getContent())
+                .noneMatch(PostSummaryResponse::isLikedByCurrentUser);
+        assertThat(postService.getPublishedPosts(pageable, liker).getContent())
+                .allMatch(PostSummaryResponse::isLikedByCurrentUser);
+    }
+
+    @Test
+    void cachedPagesAreKeyedBySize() {
+        Sort sort = Sort.by("createdAt").descending();
+
+        assertThat(postService.getPublishedPosts(PageRequest.of(0, 10, sort), null).getContent()).hasSize(3);
+        assertThat(postService.getPublishedPosts(PageRequest.of(0, 2, sort), null).getContent()).hasSize(2);
+    }
+
+    private User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build();
+    }
+}
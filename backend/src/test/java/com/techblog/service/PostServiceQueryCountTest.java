@@ -0,0 +1,118 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.entity.User;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PostServiceQueryCountTest {
+
+    private static final int FEED_PAGE_MAX_STATEMENTS = 3;
+    private static final int DETAIL_MAX_STATEMENTS = 4;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = userRepository.save(user("reader"));
+        for (int i = 0; i < 5; i++) {
+            User author = userRepository.save(user("author" + i));
+            postRepository.save(Post.builder()
+                    .title("Post " + i)
+                    .slug("post-" + i)
+                    .content("Content " + i)
+                    .author(author)
+                    .status(Post.Status.PUBLISHED)
+                    .viewCount(0)
+                    .likeCount(0)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void feedPageRunsFixedNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var page = postService.getPublishedPosts(
+                PageRequest.of(0, 10, Sort.by("createdAt").descending()), reader);
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).allSatisfy(post -> assertThat(post.getAuthorUsername()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(FEED_PAGE_MAX_STATEMENTS);
+    }
+
+    @Test
+    void postDetailLoadsItsAuthorWithThePost() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PostView view = postService.viewPost("post-3", reader);
+
+        assertThat(view.detail().getAuthorUsername()).isEqualTo("author3");
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(DETAIL_MAX_STATEMENTS);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    @Test
+    void cursorFeedWalksAllPostsWithoutCountQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            var page = postService.getPublishedFeed(cursor, 2, reader);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+            page.getItems().forEach(post -> assertThat(seen.add(post.getId())).isTrue());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(5);
+    }
+
+    private User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build();
+    }
+}
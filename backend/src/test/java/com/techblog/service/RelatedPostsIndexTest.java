@@ -0,0 +1,101 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.repository.PostRepository;
+import com.techblog.search.SearchDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RelatedPostsIndexTest {
+
+    private static final String KAFKA = "Kafka partitions let consumer groups scale horizontally while brokers "
+            + "replicate each partition log across the cluster for durability and ordered delivery";
+    private static final String GARDEN = "Tomatoes need plenty of sun, regular watering and a trellis to climb "
+            + "as the vines grow heavy with fruit late in the summer season";
+
+    @Test
+    void relatesPostsWithSharedContentAndTags() {
+        RelatedPostsIndex index = new RelatedPostsIndex(null, null);
+        publish(index, 1L, "Kafka basics", KAFKA, "kafka,streaming");
+        publish(index, 2L, "Kafka in production", KAFKA + " with monitoring and alerting on lag", "kafka,ops");
+        publish(index, 3L, "Growing tomatoes", GARDEN, "garden");
+
+        assertThat(index.relatedPostIds(1L)).containsExactly(2L);
+        assertThat(index.relatedPostIds(2L)).containsExactly(1L);
+        assertThat(index.relatedPostIds(3L)).isEmpty();
+    }
+
+    @Test
+    void updatesAndDeletesRepairNeighbourLists() {
+        RelatedPostsIndex index = new RelatedPostsIndex(null, null);
+        publish(index, 1L, "Kafka basics", KAFKA, "kafka");
+        publish(index, 2L, "Kafka again", KAFKA, "kafka");
+        assertThat(index.relatedPostIds(1L)).containsExactly(2L);
+
+        publish(index, 2L, "Growing tomatoes", GARDEN, "garden");
+        assertThat(index.relatedPostIds(1L)).isEmpty();
+
+        publish(index, 3L, "Tomato care", GARDEN, "garden");
+        assertThat(index.relatedPostIds(2L)).containsExactly(3L);
+
+        index.onPostChanged(new PostChangedEvent(Post.builder().id(3L).build(), true));
+        assertThat(index.relatedPostIds(2L)).isEmpty();
+        assertThat(index.relatedPostIds(3L)).isEmpty();
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeElsewhereAndKeepsEventsFromDuringTheLoad() {
+        PostRepository postRepository = mock(PostRepository.class);
+        RelatedPostsIndex index = new RelatedPostsIndex(postRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        publish(index, 1L, "Kafka basics", KAFKA, "kafka");
+        publish(index, 2L, "Kafka again", KAFKA, "kafka");
+        when(postRepository.streamSearchDocuments(Post.Status.PUBLISHED)).thenAnswer(invocation -> {
+            publish(index, 4L, "Tomato care", GARDEN, "garden");
+            return Stream.of(document(1L, "Kafka basics", KAFKA, "kafka"),
+                    document(3L, "Growing tomatoes", GARDEN, "garden"));
+        });
+
+        index.rebuild();
+
+        assertThat(index.relatedPostIds(1L)).isEmpty();
+        assertThat(index.relatedPostIds(3L)).containsExactly(4L);
+        assertThat(index.relatedPostIds(4L)).containsExactly(3L);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentTable() {
+        PostRepository postRepository = mock(PostRepository.class);
+        RelatedPostsIndex index = new RelatedPostsIndex(postRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        publish(index, 1L, "Kafka basics", KAFKA, "kafka");
+        publish(index, 2L, "Kafka again", KAFKA, "kafka");
+        when(postRepository.streamSearchDocuments(Post.Status.PUBLISHED)).thenThrow(new IllegalStateException("down"));
+
+        index.rebuild();
+
+        assertThat(index.relatedPostIds(1L)).containsExactly(2L);
+    }
+
+    private static SearchDocument document(Long id, String title, String content, String tags) {
+        return new SearchDocument(id, title, "post-" + id, null, content, tags, null);
+    }
+
+    private static void publish(RelatedPostsIndex index, Long id, String title, String content, String tags) {
+        Post post = Post.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .tags(tags)
+                .status(Post.Status.PUBLISHED)
+                .build();
+        index.onPostChanged(new PostChangedEvent(post, false));
+    }
+}
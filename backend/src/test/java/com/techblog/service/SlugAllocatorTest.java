@@ -0,0 +1,63 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.entity.User;
+import com.techblog.repository.PostRepository;
+import com.techblog.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SlugAllocatorTest {
+
+    @Autowired
+    private SlugAllocator slugAllocator;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void slugifyNormalizesInOnePass() {
+        assertThat(SlugAllocator.slugify("Introduction to Kafka")).isEqualTo("introduction-to-kafka");
+        assertThat(SlugAllocator.slugify("  Crème Brûlée -- recipes!  ")).isEqualTo("creme-brulee-recipes");
+        assertThat(SlugAllocator.slugify("C++ & Rust: 2024")).isEqualTo("c-rust-2024");
+        assertThat(SlugAllocator.slugify("!!!")).isEqualTo("post");
+    }
+
+    @Test
+    void allocatePicksNextSuffixAfterHighestTaken() {
+        User author = userRepository.save(User.builder()
+                .username("slugger")
+                .email("slugger@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build());
+        assertThat(slugAllocator.allocate("Introduction to Kafka")).isEqualTo("introduction-to-kafka");
+
+        for (String slug : new String[]{"introduction-to-kafka", "introduction-to-kafka-1",
+                "introduction-to-kafka-4", "introduction-to-kafka-streams"}) {
+            postRepository.save(Post.builder()
+                    .title(slug)
+                    .slug(slug)
+                    .content("Content")
+                    .author(author)
+                    .status(Post.Status.DRAFT)
+                    .viewCount(0)
+                    .likeCount(0)
+                    .build());
+        }
+
+        assertThat(slugAllocator.allocate("Introduction to Kafka")).isEqualTo("introduction-to-kafka-5");
+        assertThat(slugAllocator.allocate("Introduction to Kafka Streams")).isEqualTo("introduction-to-kafka-streams-1");
+    }
+}
@@ -0,0 +1,93 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import com.techblog.entity.Tag;
+import com.techblog.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagIndexTest {
+
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private TagIndex tagIndex;
+
+    @BeforeEach
+    void setUp() {
+        tagIndex = new TagIndex(tagRepository);
+        index(1L, Post.Status.PUBLISHED, "java", "spring");
+        index(2L, Post.Status.PUBLISHED, "java");
+        index(3L, Post.Status.PUBLISHED, "kafka", "spring");
+        index(4L, Post.Status.DRAFT, "java", "spring");
+    }
+
+    @Test
+    void matchAllIntersectsAndMatchAnyUnites() {
+        assertThat(tagIndex.find(Set.of("java", "spring"), true, 0, 10).postIds()).containsExactly(1L);
+        assertThat(tagIndex.find(Set.of("java", "kafka"), false, 0, 10).postIds()).containsExactly(3L, 2L, 1L);
+        assertThat(tagIndex.find(Set.of("java", "rust"), true, 0, 10).total()).isZero();
+        assertThat(tagIndex.find(Set.of("java", "rust"), false, 0, 10).postIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void pagesNewestFirst() {
+        TagIndex.Slice second = tagIndex.find(Set.of("java", "spring"), false, 1, 1);
+
+        assertThat(second.total()).isEqualTo(3);
+        assertThat(second.postIds()).containsExactly(2L);
+    }
+
+    @Test
+    void followsRetaggingUnpublishingAndDeletes() {
+        index(2L, Post.Status.PUBLISHED, "kafka");
+        assertThat(tagIndex.find(Set.of("java"), true, 0, 10).postIds()).containsExactly(1L);
+
+        index(3L, Post.Status.ARCHIVED, "kafka", "spring");
+        assertThat(tagIndex.find(Set.of("kafka"), true, 0, 10).postIds()).containsExactly(2L);
+
+        tagIndex.onPostChanged(new PostChangedEvent(Post.builder().id(1L).build(), true));
+        assertThat(tagIndex.find(Set.of("java", "spring"), false, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeElsewhereAndKeepsEventsFromDuringTheLoad() {
+        when(tagRepository.findPostTagNames(Post.Status.PUBLISHED)).thenAnswer(invocation -> {
+            index(6L, Post.Status.PUBLISHED, "rust");
+            return List.<Object[]>of(new Object[]{1L, "java"}, new Object[]{5L, "java"});
+        });
+
+        tagIndex.rebuild();
+
+        assertThat(tagIndex.find(Set.of("java"), true, 0, 10).postIds()).containsExactly(5L, 1L);
+        assertThat(tagIndex.find(Set.of("spring"), true, 0, 10).total()).isZero();
+        assertThat(tagIndex.find(Set.of("rust"), true, 0, 10).postIds()).containsExactly(6L);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndex() {
+        when(tagRepository.findPostTagNames(Post.Status.PUBLISHED)).thenThrow(new IllegalStateException("down"));
+
+        tagIndex.rebuild();
+
+        assertThat(tagIndex.find(Set.of("java"), true, 0, 10).postIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void normalizesTagNames() {
+        assertThat(TagService.normalize(" Java, SPRING ,,java")).containsExactly("java", "spring");
+        assertThat(TagService.normalize(List.of("Kafka", "kafka "))).containsExactly("kafka");
+    }
+
+    private void index(Long id, Post.Status status, String... tags) {
+        Set<Tag> tagSet = Arrays.stream(tags).map(name -> Tag.builder().name(name).build()).collect(Collectors.toSet());
+        tagIndex.onPostChanged(new PostChangedEvent(Post.builder().id(id).status(status).tagSet(tagSet).build(), false));
+    }
+}
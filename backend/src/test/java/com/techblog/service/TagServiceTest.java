@@ -0,0 +1,41 @@
+package com.techblog.service;
+
+import com.techblog.entity.Tag;
+import com.techblog.repository.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TagServiceTest {
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Test
+    void resolveReusesExistingTagsAndCreatesMissingOnes() {
+        Tag java = tagRepository.saveAndFlush(Tag.builder().name("java").build());
+
+        assertThat(tagService.resolve("Java, Kafka"))
+                .extracting(Tag::getName).containsExactlyInAnyOrder("java", "kafka");
+        assertThat(tagService.resolve("java")).extracting(Tag::getId).containsExactly(java.getId());
+        assertThat(tagRepository.findAll()).extracting(Tag::getName).containsExactlyInAnyOrder("java", "kafka");
+    }
+
+    @Test
+    void insertingATagSomeoneElseCreatedIsANoOp() {
+        assertThat(tagRepository.insertIfAbsent("rust")).isEqualTo(1);
+        assertThat(tagRepository.insertIfAbsent("rust")).isZero();
+
+        assertThat(tagService.resolve("rust")).hasSize(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.techblog.service;
+
+import com.techblog.entity.Post;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingServiceTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void scoresHalveEveryHalfLife() {
+        TrendingService trending = new TrendingService(null, Duration.ofHours(6), 10, false);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 8; i++) {
+            trending.recordView(1L);
+        }
+        trending.tick(now);
+
+        assertThat(trending.score(1L, now)).isCloseTo(8.0, within(1e-6));
+        assertThat(trending.score(1L, now + 6 * HOUR)).isCloseTo(4.0, within(1e-6));
+        assertThat(trending.score(1L, now + 12 * HOUR)).isCloseTo(2.0, within(1e-6));
+    }
+
+    @Test
+    void recentEngagementOutranksOlderHeavierEngagement() {
+        TrendingService trending = new TrendingService(null, Duration.ofHours(6), 10, false);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            trending.recordView(1L);
+        }
+        trending.tick(start);
+        trending.recordLike(2L, 1);
+        trending.tick(start + 24 * HOUR);
+
+        assertThat(trending.topPostIds(10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void unpublishedPostsLeaveTheRanking() {
+        TrendingService trending = new TrendingService(null, Duration.ofHours(6), 10, false);
+        trending.recordView(1L);
+        trending.recordView(2L);
+        trending.tick(System.currentTimeMillis());
+
+        trending.onPostChanged(new PostChangedEvent(Post.builder().id(1L).status(Post.Status.ARCHIVED).build(), false));
+
+        assertThat(trending.topPostIds(10)).containsExactly(2L);
+    }
+
+    @Test
+    void topKRecoversMembersAfterAScoreDrop() {
+        TrendingRanking ranking = new TrendingRanking(2);
+        ranking.add(1L, 10);
+        ranking.add(2L, 8);
+        ranking.add(3L, 6);
+        assertThat(ranking.top(2)).containsExactly(1L, 2L);
+
+        ranking.add(1L, -9);
+        assertThat(ranking.top(2)).containsExactly(2L, 3L);
+
+        ranking.scale(0.5, 3.5);
+        assertThat(ranking.top(2)).containsExactly(2L);
+    }
+}
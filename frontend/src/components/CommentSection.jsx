@@ -1,5 +1,5 @@
 import { useState } from 'react'
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import { formatDistanceToNow } from 'date-fns'
 import api from '../api/axios'
 import { useAuth } from '../context/AuthContext'
@@ -10,13 +10,18 @@ export default function CommentSection({ postId }) {
   const queryClient = useQueryClient()
   const [content, setContent] = useState('')
 
-  const { data: comments = [], isLoading } = useQuery({
+  const { data, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useInfiniteQuery({
     queryKey: ['comments', postId],
-    queryFn: async () => {
-      const { data } = await api.get(`/api/posts/${postId}/comments`)
+    queryFn: async ({ pageParam }) => {
+      const params = new URLSearchParams({ limit: 20 })
+      if (pageParam) params.set('cursor', pageParam)
+      const { data } = await api.get(`/api/posts/${postId}/comments?${params}`)
       return data
-    }
+    },
+    initialPageParam: null,
+    getNextPageParam: lastPage => lastPage.hasMore ? lastPage.nextCursor : undefined
   })
+  const comments = data?.pages.flatMap(page => page.items) ?? []
 
   const addComment = useMutation({
     mutationFn: async (text) => {
@@ -43,7 +48,7 @@ export default function CommentSection({ postId }) {
 
   return (
     <div className="mt-8">
-      <h3 className="text-xl font-semibold mb-4">Comments ({comments.length})</h3>
+      <h3 className="text-xl font-semibold mb-4">Comments ({comments.length}{hasNextPage ? '+' : ''})</h3>
 
       {user && (
         <form onSubmit={e => { e.preventDefault(); if (content.trim()) addComment.mutate(content) }} className="mb-6">
@@ -92,6 +97,15 @@ export default function CommentSection({ postId }) {
               <p className="text-sm text-gray-700 whitespace-pre-wrap">{comment.content}</p>
             </div>
           ))}
+          {hasNextPage && (
+            <button
+              onClick={() => fetchNextPage()}
+              disabled={isFetchingNextPage}
+              className="w-full py-2 border border-gray-300 rounded-md text-sm text-gray-600 hover:bg-gray-50 disabled:opacity-50"
+            >
+              {isFetchingNextPage ? 'Loading...' : 'Load more comments'}
+            </button>
+          )}
         </div>
       )}
     </div>
@@ -13,9 +13,10 @@ export default function PostCard({ post }) {
           <span>·</span>
           <span>{formatDistanceToNow(new Date(post.createdAt), { addSuffix: true })}</span>
           {post.tags && post.tags.split(',').slice(0, 3).map(tag => (
-            <span key={tag.trim()} className="bg-indigo-50 text-indigo-600 px-2 py-0.5 rounded-full">
+            <Link key={tag.trim()} to={`/?tag=${encodeURIComponent(tag.trim().toLowerCase())}`}
+              className="bg-indigo-50 text-indigo-600 px-2 py-0.5 rounded-full hover:bg-indigo-100">
               {tag.trim()}
-            </span>
+            </Link>
           ))}
         </div>
         <Link to={`/posts/${post.slug}`}>
@@ -29,6 +30,7 @@ export default function PostCard({ post }) {
         <div className="flex items-center gap-4 text-sm text-gray-500">
           <span>👁 {post.viewCount}</span>
           <span>❤️ {post.likeCount}</span>
+          {post.commentCount != null && <span>💬 {post.commentCount}</span>}
           <Link to={`/posts/${post.slug}`} className="ml-auto text-indigo-600 hover:text-indigo-700 font-medium">
             Read more →
           </Link>
@@ -1,15 +1,22 @@
-import { useState } from 'react'
+import { useEffect, useState } from 'react'
+import { useSearchParams } from 'react-router-dom'
 import { useQuery } from '@tanstack/react-query'
 import api from '../api/axios'
 import PostCard from '../components/PostCard'
 
 export default function HomePage() {
   const [page, setPage] = useState(0)
+  const [searchParams] = useSearchParams()
+  const tags = searchParams.getAll('tag')
+
+  useEffect(() => setPage(0), [searchParams])
 
   const { data, isLoading, isError } = useQuery({
-    queryKey: ['posts', page],
+    queryKey: ['posts', page, tags],
     queryFn: async () => {
-      const { data } = await api.get(`/api/posts?page=${page}&size=9`)
+      const params = new URLSearchParams({ page, size: 9 })
+      tags.forEach(tag => params.append('tag', tag))
+      const { data } = await api.get(`/api/posts?${params}`)
       return data
     }
   })
@@ -27,7 +34,9 @@ export default function HomePage() {
   return (
     <div>
       <div className="mb-8">
-        <h1 className="text-3xl font-bold text-gray-900">Latest Posts</h1>
+        <h1 className="text-3xl font-bold text-gray-900">
+          {tags.length ? `Posts tagged ${tags.map(tag => `#${tag}`).join(' + ')}` : 'Latest Posts'}
+        </h1>
         <p className="text-gray-600 mt-1">Discover the latest in tech</p>
       </div>
 
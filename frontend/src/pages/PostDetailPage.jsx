@@ -65,9 +65,10 @@ export default function PostDetailPage() {
         {post.tags && (
           <div className="flex flex-wrap gap-2 mt-3">
             {post.tags.split(',').map(tag => (
-              <span key={tag.trim()} className="bg-indigo-50 text-indigo-600 px-3 py-1 rounded-full text-xs font-medium">
+              <Link key={tag.trim()} to={`/?tag=${encodeURIComponent(tag.trim().toLowerCase())}`}
+                className="bg-indigo-50 text-indigo-600 px-3 py-1 rounded-full text-xs font-medium hover:bg-indigo-100">
                 {tag.trim()}
-              </span>
+              </Link>
             ))}
           </div>
         )}
@@ -122,14 +122,15 @@ module "ec2" {
   aws_region           = var.aws_region
 
   app_env = {
-    DB_URL                  = "jdbc:postgresql://${module.rds.endpoint}:5432/${var.db_name}"
-    DB_USERNAME             = var.db_username
-    DB_PASSWORD             = var.db_password
-    REDIS_HOST              = module.elasticache.primary_endpoint
-    REDIS_PORT              = "6379"
-    AWS_REGION              = var.aws_region
-    S3_BUCKET               = module.s3.bucket_name
-    DYNAMODB_COMMENTS_TABLE = module.dynamodb.comments_table_name
-    FIREHOSE_STREAM_NAME    = module.firehose.delivery_stream_name
+    DB_URL                        = "jdbc:postgresql://${module.rds.endpoint}:5432/${var.db_name}"
+    DB_USERNAME                   = var.db_username
+    DB_PASSWORD                   = var.db_password
+    REDIS_HOST                    = module.elasticache.primary_endpoint
+    REDIS_PORT                    = "6379"
+    AWS_REGION                    = var.aws_region
+    S3_BUCKET                     = module.s3.bucket_name
+    DYNAMODB_COMMENTS_TABLE       = module.dynamodb.comments_table_name
+    DYNAMODB_COMMENT_COUNTS_TABLE = module.dynamodb.comment_counts_table_name
+    FIREHOSE_STREAM_NAME          = module.firehose.delivery_stream_name
   }
 }
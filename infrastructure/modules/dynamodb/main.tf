@@ -6,6 +6,7 @@ resource "aws_dynamodb_table" "comments" {
   attribute { name = "commentId"; type = "S" }
   attribute { name = "postId";    type = "S" }
   attribute { name = "createdAt"; type = "S" }
+  attribute { name = "livePostId"; type = "S" }
 
   global_secondary_index {
     name            = "postId-createdAt-index"
@@ -14,6 +15,15 @@ resource "aws_dynamodb_table" "comments" {
     projection_type = "ALL"
   }
 
+  # Sparse: livePostId is removed on soft delete, so deleted comments are
+  # neither stored in nor read from this index.
+  global_secondary_index {
+    name            = "livePostId-createdAt-index"
+    hash_key        = "livePostId"
+    range_key       = "createdAt"
+    projection_type = "ALL"
+  }
+
   ttl {
     attribute_name = "ttl"
     enabled        = true
@@ -25,3 +35,19 @@ resource "aws_dynamodb_table" "comments" {
 
   tags = { Name = "${var.project_name}-${var.environment}-comments" }
 }
+
+# Per-post comment counters, incremented in the same transaction as each
+# comment write so feed pages can read counts in bulk.
+resource "aws_dynamodb_table" "comment_counts" {
+  name         = "${var.project_name}-${var.environment}-comment-counts"
+  billing_mode = "PAY_PER_REQUEST"
+  hash_key     = "postId"
+
+  attribute { name = "postId"; type = "S" }
+
+  point_in_time_recovery {
+    enabled = var.environment == "prod"
+  }
+
+  tags = { Name = "${var.project_name}-${var.environment}-comment-counts" }
+}
@@ -1,2 +1,3 @@
 output "comments_table_name" { value = aws_dynamodb_table.comments.name }
 output "comments_table_arn" { value = aws_dynamodb_table.comments.arn }
+output "comment_counts_table_name" { value = aws_dynamodb_table.comment_counts.name }